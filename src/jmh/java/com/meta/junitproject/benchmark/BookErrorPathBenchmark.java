@@ -0,0 +1,91 @@
+package com.meta.junitproject.benchmark;
+
+import com.meta.junitproject.web.dto.response.CommonRespDto;
+import com.meta.junitproject.web.handler.ex.BookApiException;
+import com.meta.junitproject.web.handler.ex.BookNotFoundException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 에러 응답을 만드는 비용 비교 (요청 하나당)
+ * - legacy_*: 예전 방식 (new RuntimeException -> depth만큼 쌓인 스택 트레이스 채집, 검증 실패는 Map.toString()을 메시지로)
+ * - typed_not_found: BookNotFoundException (스택 트레이스를 채집하지 않음)
+ * - result_validation: 예외 없이 필드 에러 Map을 응답 바디에 바로 담음 (BookApiController.validationFailed)
+ * depth는 컨트롤러 -> 서비스 -> AOP 프록시까지의 호출 깊이를 흉내낸다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BookErrorPathBenchmark {
+
+    @Param({"10", "100"})
+    private int depth;
+
+    private String field;
+    private String defaultMessage;
+
+    @Setup
+    public void setup() {
+        field = "title";
+        defaultMessage = "공백일 수 없습니다";
+    }
+
+    @Benchmark
+    public CommonRespDto<?> legacy_not_found() {
+        try {
+            call(depth, () -> {
+                throw new RuntimeException("해당 아이디를 찾을 수 없습니다.");
+            });
+            return null;
+        } catch (RuntimeException e) {
+            return CommonRespDto.builder().code(-1).message(e.getMessage()).build();
+        }
+    }
+
+    @Benchmark
+    public CommonRespDto<?> typed_not_found() {
+        try {
+            call(depth, () -> {
+                throw new BookNotFoundException();
+            });
+            return null;
+        } catch (BookApiException e) {
+            return CommonRespDto.builder().code(-1).message(e.getMessage()).build();
+        }
+    }
+
+    @Benchmark
+    public CommonRespDto<?> legacy_validation() {
+        try {
+            call(depth, () -> {
+                Map<String, String> errorMap = new HashMap<>();
+                errorMap.put(field, defaultMessage);
+                throw new RuntimeException(errorMap.toString());
+            });
+            return null;
+        } catch (RuntimeException e) {
+            return CommonRespDto.builder().code(-1).message(e.getMessage()).build();
+        }
+    }
+
+    @Benchmark
+    public CommonRespDto<?> result_validation() {
+        Map<String, String> errorMap = new LinkedHashMap<>();
+        errorMap.put(field, defaultMessage);
+        return CommonRespDto.builder().code(-1).message("유효성 검사 실패").errors(errorMap).build();
+    }
+
+    private static void call(int depth, Runnable leaf) {
+        if (depth == 0) {
+            leaf.run();
+            return;
+        }
+        call(depth - 1, leaf);
+    }
+}
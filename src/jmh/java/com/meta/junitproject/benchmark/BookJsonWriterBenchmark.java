@@ -0,0 +1,104 @@
+package com.meta.junitproject.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.meta.junitproject.domain.Book;
+import com.meta.junitproject.web.dto.response.BookListRespDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import com.meta.junitproject.web.dto.response.CommonRespDto;
+import com.meta.junitproject.web.json.BookJsonModule;
+import com.meta.junitproject.web.json.BookJsonWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 전체 목록 응답 만들기: 엔티티 목록 -> CommonRespDto json bytes (DB 조회는 빼고 변환 + 직렬화만)
+ * - reflective: Book::toDto -> BeanSerializer (기존 방식)
+ * - module: Book::toDto -> BookJsonModule 직렬화기
+ * - direct_entity: dto 없이 엔티티를 BookJsonWriter로 바로 (export와 같은 경로)
+ * 할당량은 gc 프로파일러의 gc.alloc.rate.norm(B/op)으로 비교한다. (build.gradle jmh.profilers)
+ * ./gradlew jmh -Pjmh.includes=BookJsonWriterBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BookJsonWriterBenchmark {
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private ObjectMapper reflective;
+    private ObjectMapper module;
+    private SerializerProvider provider;
+    private List<Book> books;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setup() {
+        reflective = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        module = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .registerModule(new BookJsonModule());
+        provider = module.getSerializerProviderInstance();
+
+        books = new ArrayList<>(rows);
+        for (long i = 1; i <= rows; i++) {
+            books.add(new Book(i, "junit강의" + i, "메타코딩"));
+        }
+        out = new ByteArrayOutputStream(rows * 100);
+    }
+
+    @Benchmark
+    public int reflective() throws IOException {
+        out.reset();
+        reflective.writeValue(out, response());
+        return out.size();
+    }
+
+    @Benchmark
+    public int module() throws IOException {
+        out.reset();
+        module.writeValue(out, response());
+        return out.size();
+    }
+
+    @Benchmark
+    public int direct_entity() throws IOException {
+        out.reset();
+        try (JsonGenerator gen = module.getFactory().createGenerator(out)) {
+            gen.writeStartObject();
+            gen.writeNumberField("code", 1);
+            gen.writeStringField("message", "글 목록보기 성공");
+            gen.writeFieldName("body");
+            gen.writeStartObject();
+            gen.writeFieldName("items");
+            gen.writeStartArray(books, books.size());
+            for (Book book : books) {
+                BookJsonWriter.write(gen, provider, book);
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+            gen.writeEndObject();
+        }
+        return out.size();
+    }
+
+    private CommonRespDto<BookListRespDto> response() {
+        List<BookRespDto> dtos = new ArrayList<>(books.size());
+        for (Book book : books) {
+            dtos.add(book.toDto());
+        }
+        return new CommonRespDto<>(1, "글 목록보기 성공", BookListRespDto.builder().bookList(dtos).build(), null, null);
+    }
+}
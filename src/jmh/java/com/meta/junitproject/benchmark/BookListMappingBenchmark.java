@@ -0,0 +1,45 @@
+package com.meta.junitproject.benchmark;
+
+import com.meta.junitproject.domain.Book;
+import com.meta.junitproject.web.dto.response.BookListRespDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * BookService.look_book_contents()의 변환 부분
+ * findAll() 결과(List<Book>) -> stream().map(Book::toDto).collect -> BookListRespDto
+ * DB 조회 시간은 빼고 목록 크기에 따른 변환 비용만 본다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BookListMappingBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private List<Book> books;
+
+    @Setup
+    public void setup() {
+        books = new ArrayList<>(rows);
+        for (long i = 1; i <= rows; i++) {
+            books.add(new Book(i, "junit강의" + i, "메타코딩"));
+        }
+    }
+
+    @Benchmark
+    public BookListRespDto look_book_contents_mapping() {
+        List<BookRespDto> dtos = books.stream()
+                .map(Book::toDto)
+                .collect(Collectors.toList());
+        return BookListRespDto.builder().bookList(dtos).build();
+    }
+}
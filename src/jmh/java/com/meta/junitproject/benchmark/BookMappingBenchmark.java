@@ -0,0 +1,39 @@
+package com.meta.junitproject.benchmark;
+
+import com.meta.junitproject.domain.Book;
+import com.meta.junitproject.web.dto.request.BookSaveReqDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * entity <-> dto 변환 한 건 비용
+ * Book.toDto(): 조회 응답마다 실행 / BookSaveReqDto.toEntity(): 등록마다 실행
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class BookMappingBenchmark {
+
+    private Book book;
+    private BookSaveReqDto bookSaveReqDto;
+
+    @Setup
+    public void setup() {
+        book = new Book(1L, "junit강의", "메타코딩");
+        bookSaveReqDto = new BookSaveReqDto();
+        bookSaveReqDto.setTitle("junit강의");
+        bookSaveReqDto.setAuthor("메타코딩");
+    }
+
+    @Benchmark
+    public BookRespDto book_toDto() {
+        return book.toDto();
+    }
+
+    @Benchmark
+    public Book bookSaveReqDto_toEntity() {
+        return bookSaveReqDto.toEntity();
+    }
+}
@@ -0,0 +1,91 @@
+package com.meta.junitproject.benchmark;
+
+import com.meta.junitproject.JunitProjectApplication;
+import com.meta.junitproject.domain.Book;
+import com.meta.junitproject.domain.BookRepository;
+import com.meta.junitproject.service.BookService;
+import com.meta.junitproject.web.dto.response.BookListRespDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 책 목록 조회 경로 비교 (H2 메모리 DB, 실제 JPA)
+ * - entity_read_write: 예전 방식을 쓰기 트랜잭션 안에서 실행 (엔티티 + 영속성 컨텍스트 + 더티 체킹 스냅샷 + flush)
+ * - entity_read_only: findAll() -> Book::toDto (엔티티 생성 + 영속성 컨텍스트 등록)
+ * - projection: look_book_contents() (select new BookRespDto, readOnly 트랜잭션)
+ * 할당량은 gc 프로파일러의 gc.alloc.rate.norm(B/op)으로 비교한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BookReadPathBenchmark {
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private BookService bookService;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(JunitProjectApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("dev")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:read_path_bench",
+                        "spring.jpa.show-sql=false",
+                        "book.mail.dispatch.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        bookRepository = context.getBean(BookRepository.class);
+        bookService = context.getBean(BookService.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        List<Book> books = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            books.add(Book.builder().title("junit강의" + i).author("메타코딩").build());
+        }
+        bookRepository.saveAll(books);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BookListRespDto entity_read_write() {
+        return transactionTemplate.execute(status -> entityPath());
+    }
+
+    @Benchmark
+    public BookListRespDto entity_read_only() {
+        return entityPath();
+    }
+
+    @Benchmark
+    public BookListRespDto projection() {
+        return bookService.look_book_contents();
+    }
+
+    private BookListRespDto entityPath() {
+        List<BookRespDto> dtos = bookRepository.findAll().stream()
+                .map(Book::toDto)
+                .collect(Collectors.toList());
+        return BookListRespDto.builder().bookList(dtos).build();
+    }
+}
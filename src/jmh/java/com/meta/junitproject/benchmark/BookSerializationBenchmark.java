@@ -0,0 +1,42 @@
+package com.meta.junitproject.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meta.junitproject.web.dto.response.BookListRespDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import com.meta.junitproject.web.dto.response.CommonRespDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getBookList 응답 직렬화 비용: CommonRespDto<BookListRespDto> -> json bytes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class BookSerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int rows;
+
+    private ObjectMapper om;
+    private CommonRespDto<BookListRespDto> response;
+
+    @Setup
+    public void setup() {
+        om = new ObjectMapper();
+        List<BookRespDto> items = new ArrayList<>(rows);
+        for (long i = 1; i <= rows; i++) {
+            items.add(BookRespDto.builder().id(i).title("junit강의" + i).author("메타코딩").build());
+        }
+        response = new CommonRespDto<>(1, "글 목록보기 성공", BookListRespDto.builder().bookList(items).build(), null, null);
+    }
+
+    @Benchmark
+    public byte[] serialize_book_list() throws JsonProcessingException {
+        return om.writeValueAsBytes(response);
+    }
+}
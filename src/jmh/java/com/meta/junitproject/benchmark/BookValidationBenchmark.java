@@ -0,0 +1,55 @@
+package com.meta.junitproject.benchmark;
+
+import com.meta.junitproject.web.dto.request.BookSaveReqDto;
+import org.openjdk.jmh.annotations.*;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Valid BookSaveReqDto 검증 비용 (registerBook, updateBook 요청마다 실행)
+ * 실패 케이스는 에러 메시지 interpolation까지 포함된다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BookValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private BookSaveReqDto valid;
+    private BookSaveReqDto invalid;
+
+    @Setup
+    public void setup() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+
+        valid = new BookSaveReqDto();
+        valid.setTitle("junit강의");
+        valid.setAuthor("메타코딩");
+
+        invalid = new BookSaveReqDto();
+        invalid.setTitle("");
+        invalid.setAuthor("m");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<BookSaveReqDto>> validate_valid() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<BookSaveReqDto>> validate_invalid() {
+        return validator.validate(invalid);
+    }
+}
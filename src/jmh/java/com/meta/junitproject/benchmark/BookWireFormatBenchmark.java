@@ -0,0 +1,98 @@
+package com.meta.junitproject.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.meta.junitproject.web.dto.response.BookListRespDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import com.meta.junitproject.web.dto.response.CommonRespDto;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * getBookList 응답의 형식별 직렬화 비용과 크기
+ * - format: json(현재) / cbor / smile
+ * - serialize: 직렬화만, serialize_gzip: 직렬화 + gzip (server.compression과 같은 기본 압축 레벨)
+ * bytes-on-wire(원본, gzip)는 결과표의 bytes 열(Payload)로 같이 나온다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class BookWireFormatBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int rows;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper om;
+    private CommonRespDto<BookListRespDto> response;
+
+    /**
+     * 응답 크기(bytes/op): 입력이 고정이라 매 호출 같은 값이다.
+     * EVENTS 카운터는 측정 iteration과 thread마다 더해서 보고되므로 그 수로 나눠서 기록한다.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        public double bytes;
+        private double share;
+
+        @Setup(Level.Trial)
+        public void setup(BenchmarkParams params) {
+            share = 1.0 / (params.getMeasurement().getCount() * params.getThreads());
+        }
+
+        void record(byte[] payload) {
+            bytes = payload.length * share;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS); // spring boot 기본과 같게
+        if (format.equals("cbor")) {
+            builder.factory(new CBORFactory());
+        } else if (format.equals("smile")) {
+            builder.factory(new SmileFactory());
+        }
+        om = builder.build();
+
+        Instant now = Instant.now();
+        List<BookRespDto> items = new ArrayList<>(rows);
+        for (long i = 1; i <= rows; i++) {
+            items.add(BookRespDto.builder().id(i).title("junit강의" + i).author("메타코딩").version(0L).modifiedAt(now).build());
+        }
+        response = new CommonRespDto<>(1, "글 목록보기 성공", BookListRespDto.builder().bookList(items).build(), null, null);
+    }
+
+    @Benchmark
+    public byte[] serialize(Payload payload) throws IOException {
+        byte[] bytes = om.writeValueAsBytes(response);
+        payload.record(bytes);
+        return bytes;
+    }
+
+    @Benchmark
+    public byte[] serialize_gzip(Payload payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            om.writeValue(gzip, response);
+        }
+        byte[] bytes = out.toByteArray();
+        payload.record(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,156 @@
+package com.meta.junitproject.loadtest;
+
+import com.meta.junitproject.JunitProjectApplication;
+import com.meta.junitproject.service.BookBulkService;
+import com.meta.junitproject.web.dto.request.BookSaveReqDto;
+import com.meta.junitproject.web.dto.response.BookBulkItemRespDto;
+import com.meta.junitproject.web.dto.response.BookBulkRespDto;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 부하 테스트 실행 (./gradlew loadTest)
+ * 1. dev profile(H2)로 앱을 랜덤 포트에 띄운다. (sql 로그는 끔)
+ *    모든 요청이 localhost 한 곳에서 나가므로 admission(클라이언트별 rate limit)은 끈다. (켜면 429가 에러로 집계됨)
+ * 2. seed-books 만큼 책을 넣는다.
+ * 3. 워밍업 -> 통계 초기화 -> 측정
+ * 4. route별 throughput / p50 / p99 / p999 / max 출력, SLO 위반이 있으면 exit code 1 (빌드 실패)
+ */
+public class BookLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = new LoadTestConfig();
+        System.out.println("[loadtest] " + config);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(JunitProjectApplication.class)
+                .profiles("dev")
+                .properties(
+                        "server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "book.admission.enabled=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.springframework.web=WARN",
+                        "logging.level.org.hibernate=WARN")
+                .properties(config.getAppProperties())
+                .run(args);
+
+        int exitCode;
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            long[] seedRange = seed(context.getBean(BookBulkService.class), config.getSeedBooks());
+
+            if (config.getConcurrencySweep().isEmpty()) {
+                LoadGenerator generator = new LoadGenerator(config, config.getConcurrency(), baseUrl, seedRange[0], seedRange[1]);
+                exitCode = measure(config, generator) ? 0 : 1;
+            } else {
+                exitCode = sweep(config, baseUrl, seedRange) ? 0 : 1;
+            }
+        } finally {
+            context.close();
+        }
+        System.exit(exitCode);
+    }
+
+    // 워밍업 -> 통계 초기화 -> 측정 -> 결과 출력, SLO 통과하면 true
+    private static boolean measure(LoadTestConfig config, LoadGenerator generator) throws InterruptedException {
+        System.out.println("[loadtest] concurrency " + generator.getConcurrency() + ", warmup " + config.getWarmupSeconds() + "s");
+        generator.run(config.getWarmupSeconds());
+        generator.resetStats();
+
+        System.out.println("[loadtest] measuring " + config.getDurationSeconds() + "s");
+        generator.run(config.getDurationSeconds());
+        return report(config, generator);
+    }
+
+    // 동시 사용자 수를 늘려가며 측정 -> SLO를 만족한 최대 동시 사용자 수 (execution mode 비교용)
+    private static boolean sweep(LoadTestConfig config, String baseUrl, long[] seedRange) throws InterruptedException {
+        int maxSustained = 0;
+        List<String> summary = new ArrayList<>();
+        for (int concurrency : config.getConcurrencySweep()) {
+            LoadGenerator generator = new LoadGenerator(config, concurrency, baseUrl, seedRange[0], seedRange[1]);
+            boolean passed = measure(config, generator);
+            long total = generator.getStats().values().stream().mapToLong(RouteStats::count).sum();
+            summary.add(String.format("concurrency %6d: %10.1f req/s, %s", concurrency,
+                    total / (double) config.getDurationSeconds(), passed ? "OK" : "SLO violated"));
+            if (!passed) {
+                break;
+            }
+            maxSustained = concurrency;
+        }
+        summary.forEach(line -> System.out.println("[loadtest] " + line));
+        System.out.println("[loadtest] max sustained concurrency: " + maxSustained);
+        return maxSustained > 0;
+    }
+
+    // 1000건씩 bulk 등록, seed된 id의 최소/최대 반환
+    private static long[] seed(BookBulkService bookBulkService, int count) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int done = 0; done < count; ) {
+            int size = Math.min(1000, count - done);
+            List<BookSaveReqDto> dtos = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                BookSaveReqDto dto = new BookSaveReqDto();
+                dto.setTitle("seed" + (done + i));
+                dto.setAuthor("loadtest");
+                dtos.add(dto);
+            }
+            BookBulkRespDto result = bookBulkService.register_books(dtos);
+            for (BookBulkItemRespDto item : result.getItems()) {
+                if (item.getSuccess()) {
+                    min = Math.min(min, item.getBook().getId());
+                    max = Math.max(max, item.getBook().getId());
+                }
+            }
+            done += size;
+        }
+        System.out.println("[loadtest] seeded " + count + " books (id " + min + " ~ " + max + ")");
+        return new long[]{min, max};
+    }
+
+    // 결과 출력 + SLO 검사, 통과하면 true
+    private static boolean report(LoadTestConfig config, LoadGenerator generator) {
+        double seconds = config.getDurationSeconds();
+        long totalCount = 0;
+        long totalErrors = 0;
+        List<String> violations = new ArrayList<>();
+
+        System.out.printf("%-24s %10s %8s %10s %9s %9s %9s %9s%n",
+                "route", "count", "errors", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+        for (Map.Entry<Route, RouteStats> entry : generator.getStats().entrySet()) {
+            Route route = entry.getKey();
+            RouteStats stats = entry.getValue();
+            totalCount += stats.count();
+            totalErrors += stats.errors();
+            System.out.printf("%-24s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    route.getLabel(), stats.count(), stats.errors(), stats.count() / seconds,
+                    stats.percentileMillis(50), stats.percentileMillis(99), stats.percentileMillis(99.9), stats.maxMillis());
+
+            long sloP99 = config.getSloP99Millis().get(route);
+            if (sloP99 > 0 && stats.count() > 0 && stats.percentileMillis(99) > sloP99) {
+                violations.add(route.getLabel() + " p99 " + stats.percentileMillis(99) + "ms > " + sloP99 + "ms");
+            }
+        }
+
+        double throughput = totalCount / seconds;
+        double errorRate = totalCount == 0 ? 0 : (double) totalErrors / totalCount;
+        System.out.printf("total: %.1f req/s, error rate %.4f, dropped %d%n", throughput, errorRate, generator.getDropped());
+
+        if (errorRate > config.getSloErrorRate()) {
+            violations.add("error rate " + errorRate + " > " + config.getSloErrorRate());
+        }
+        if (throughput < config.getSloMinThroughput()) {
+            violations.add("throughput " + throughput + " req/s < " + config.getSloMinThroughput());
+        }
+        if (config.isOpenModel() && generator.getDropped() > 0) {
+            violations.add("dropped " + generator.getDropped() + " requests (in-flight limit " + config.getConcurrency() + ")");
+        }
+
+        violations.forEach(v -> System.out.println("[loadtest] SLO violation: " + v));
+        return violations.isEmpty();
+    }
+}
@@ -0,0 +1,205 @@
+package com.meta.junitproject.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * read/write 비율(mix)에 맞춰 5개 route로 요청을 보내고 route별 통계를 쌓는다.
+ * - closed model: concurrency개의 스레드가 응답을 받자마자 다음 요청 (서버가 느려지면 부하도 줄어든다)
+ * - open model: 초당 rate건을 정해진 시각에 보낸다. latency는 "보내려던 시각"부터 잰다. (coordinated omission 방지)
+ * 조회/수정은 seed된 id를, 삭제는 이번 테스트에서 등록한 id만 대상으로 한다. (seed 데이터는 지우지 않음)
+ */
+public class LoadGenerator {
+
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private final LoadTestConfig config;
+    private final int concurrency;
+    private final String baseUrl;
+    private final long minSeedId;
+    private final long maxSeedId;
+    private final HttpClient client;
+    private final Route[] weightedRoutes;
+    private final Map<Route, RouteStats> stats = new EnumMap<>(Route.class);
+    private final ConcurrentLinkedQueue<Long> registeredIds = new ConcurrentLinkedQueue<>();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    public LoadGenerator(LoadTestConfig config, int concurrency, String baseUrl, long minSeedId, long maxSeedId) {
+        this.config = config;
+        this.concurrency = concurrency;
+        this.baseUrl = baseUrl;
+        this.minSeedId = minSeedId;
+        this.maxSeedId = maxSeedId;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors())))
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        int totalWeight = config.getMix().values().stream().mapToInt(Integer::intValue).sum();
+        this.weightedRoutes = new Route[totalWeight];
+        int i = 0;
+        for (Map.Entry<Route, Integer> entry : config.getMix().entrySet()) {
+            for (int w = 0; w < entry.getValue(); w++) {
+                weightedRoutes[i++] = entry.getKey();
+            }
+        }
+        for (Route route : Route.values()) {
+            stats.put(route, new RouteStats());
+        }
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public Map<Route, RouteStats> getStats() {
+        return stats;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public void resetStats() {
+        stats.values().forEach(RouteStats::reset);
+        dropped.reset();
+    }
+
+    // seconds 동안 부하를 준다.
+    public void run(int seconds) throws InterruptedException {
+        if (config.isOpenModel()) {
+            runOpen(seconds);
+        } else {
+            runClosed(seconds);
+        }
+    }
+
+    private void runClosed(int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    Route route = nextRoute();
+                    HttpRequest request = request(route);
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        complete(route, start, response);
+                    } catch (Exception e) {
+                        stats.get(route).record(System.nanoTime() - start, true);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+    }
+
+    private void runOpen(int seconds) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.getRate();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicInteger inFlight = new AtomicInteger();
+
+        for (long intended = start; intended < deadline; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.get() >= concurrency) {
+                dropped.increment(); // 서버가 못 따라와 in-flight 상한을 넘음
+                continue;
+            }
+
+            long intendedStart = intended;
+            Route route = nextRoute();
+            inFlight.incrementAndGet();
+            client.sendAsync(request(route), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, e) -> {
+                        inFlight.decrementAndGet();
+                        if (e != null) {
+                            stats.get(route).record(System.nanoTime() - intendedStart, true);
+                        } else {
+                            complete(route, intendedStart, response);
+                        }
+                    });
+        }
+        while (inFlight.get() > 0 && System.nanoTime() < deadline + TimeUnit.SECONDS.toNanos(30)) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private void complete(Route route, long start, HttpResponse<String> response) {
+        boolean error = response.statusCode() >= 400;
+        stats.get(route).record(System.nanoTime() - start, error);
+        if (route == Route.REGISTER && !error) {
+            Matcher matcher = ID_PATTERN.matcher(response.body());
+            if (matcher.find()) {
+                registeredIds.add(Long.parseLong(matcher.group(1)));
+            }
+        }
+    }
+
+    private Route nextRoute() {
+        Route route = weightedRoutes[ThreadLocalRandom.current().nextInt(weightedRoutes.length)];
+        if (route == Route.DELETE && registeredIds.isEmpty()) {
+            return Route.ONE; // 지울 수 있는 책(이번 테스트에서 등록한 책)이 아직 없음
+        }
+        return route;
+    }
+
+    private HttpRequest request(Route route) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(Duration.ofSeconds(30));
+        switch (route) {
+            case REGISTER:
+                return builder.uri(uri("/api/v1/book"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body("load" + sequence.incrementAndGet())))
+                        .build();
+            case LIST:
+                String query = config.getListLimit() > 0
+                        ? "?after=" + (randomSeedId() - 1) + "&limit=" + config.getListLimit() : "";
+                return builder.uri(uri("/api/v1/book" + query)).GET().build();
+            case UPDATE:
+                return builder.uri(uri("/api/v1/book/" + randomSeedId()))
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(body("update" + sequence.incrementAndGet())))
+                        .build();
+            case DELETE:
+                Long id = registeredIds.poll();
+                return builder.uri(uri("/api/v1/book/" + (id == null ? Long.MAX_VALUE : id))).DELETE().build();
+            case ONE:
+            default:
+                return builder.uri(uri("/api/v1/book/" + randomSeedId())).GET().build();
+        }
+    }
+
+    private long randomSeedId() {
+        return ThreadLocalRandom.current().nextLong(minSeedId, maxSeedId + 1);
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private String body(String title) {
+        return "{\"title\":\"" + title + "\",\"author\":\"loadtest\"}";
+    }
+}
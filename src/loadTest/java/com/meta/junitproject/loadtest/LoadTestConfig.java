@@ -0,0 +1,95 @@
+package com.meta.junitproject.loadtest;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 부하 테스트 설정 (-Dloadtest.xxx)
+ *
+ * loadtest.model              closed(동시 사용자 N명이 응답 받고 바로 다음 요청) | open(초당 rate건 고정 도착)
+ * loadtest.concurrency        closed: 동시 사용자 수 / open: 최대 in-flight 요청 수 (넘으면 dropped)
+ * loadtest.rate               open: 초당 요청 수
+ * loadtest.warmup-seconds     측정 전 워밍업 (통계에서 제외)
+ * loadtest.duration-seconds   측정 시간
+ * loadtest.seed-books         시작 전에 넣어둘 책 수
+ * loadtest.mix.<route>        route별 비중 (register, list, one, update, delete)
+ * loadtest.list-limit         list 요청을 keyset 페이지로 보낼 때 limit (0이면 전체 목록)
+ * loadtest.slo.<route>.p99-ms route별 p99 상한 (ms, 0이면 검사 안 함)
+ * loadtest.slo.error-rate     전체 에러 비율 상한
+ * loadtest.slo.min-throughput 전체 초당 처리량 하한
+ * loadtest.concurrency-sweep  closed model 동시 사용자 수 목록 (예: 50,200,1000,4000)
+ *                             단계별로 측정해서 SLO를 만족하는 최대 동시 사용자 수를 출력한다.
+ * loadtest.app-properties     앱에 넘길 프로퍼티 (예: book.execution.mode=virtual;spring.datasource.hikari.maximum-pool-size=50)
+ */
+@Getter
+public class LoadTestConfig {
+
+    private final String model = prop("model", "closed");
+    private final int concurrency = intProp("concurrency", 32);
+    private final int rate = intProp("rate", 500);
+    private final int warmupSeconds = intProp("warmup-seconds", 10);
+    private final int durationSeconds = intProp("duration-seconds", 30);
+    private final int seedBooks = intProp("seed-books", 10000);
+    private final int listLimit = intProp("list-limit", 0);
+    private final double sloErrorRate = doubleProp("slo.error-rate", 0.01);
+    private final double sloMinThroughput = doubleProp("slo.min-throughput", 0);
+    private final List<Integer> concurrencySweep = intListProp("concurrency-sweep");
+    private final String[] appProperties = prop("app-properties", "").isEmpty()
+            ? new String[0] : prop("app-properties", "").split(";");
+    private final Map<Route, Integer> mix = new EnumMap<>(Route.class);
+    private final Map<Route, Long> sloP99Millis = new EnumMap<>(Route.class);
+
+    public LoadTestConfig() {
+        mix.put(Route.REGISTER, intProp("mix.register", 5));
+        mix.put(Route.LIST, intProp("mix.list", 5));
+        mix.put(Route.ONE, intProp("mix.one", 80));
+        mix.put(Route.UPDATE, intProp("mix.update", 5));
+        mix.put(Route.DELETE, intProp("mix.delete", 5));
+
+        sloP99Millis.put(Route.REGISTER, longProp("slo.register.p99-ms", 200));
+        sloP99Millis.put(Route.LIST, longProp("slo.list.p99-ms", 0));
+        sloP99Millis.put(Route.ONE, longProp("slo.one.p99-ms", 50));
+        sloP99Millis.put(Route.UPDATE, longProp("slo.update.p99-ms", 200));
+        sloP99Millis.put(Route.DELETE, longProp("slo.delete.p99-ms", 200));
+    }
+
+    public boolean isOpenModel() {
+        return "open".equalsIgnoreCase(model);
+    }
+
+    @Override
+    public String toString() {
+        return "model=" + model + ", concurrency=" + concurrency + (isOpenModel() ? ", rate=" + rate + "/s" : "")
+                + ", warmup=" + warmupSeconds + "s, duration=" + durationSeconds + "s, seed-books=" + seedBooks
+                + ", mix=" + mix;
+    }
+
+    private static String prop(String key, String defaultValue) {
+        return System.getProperty("loadtest." + key, defaultValue);
+    }
+
+    private static int intProp(String key, int defaultValue) {
+        return Integer.parseInt(prop(key, String.valueOf(defaultValue)));
+    }
+
+    private static long longProp(String key, long defaultValue) {
+        return Long.parseLong(prop(key, String.valueOf(defaultValue)));
+    }
+
+    private static List<Integer> intListProp(String key) {
+        String value = prop(key, "");
+        if (value.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(",")).map(String::trim).map(Integer::parseInt).collect(Collectors.toList());
+    }
+
+    private static double doubleProp(String key, double defaultValue) {
+        return Double.parseDouble(prop(key, String.valueOf(defaultValue)));
+    }
+}
@@ -0,0 +1,25 @@
+package com.meta.junitproject.loadtest;
+
+// 부하 테스트 대상 /api/v1/book route 5개
+public enum Route {
+    REGISTER("POST /api/v1/book"),
+    LIST("GET /api/v1/book"),
+    ONE("GET /api/v1/book/{id}"),
+    UPDATE("PUT /api/v1/book/{id}"),
+    DELETE("DELETE /api/v1/book/{id}");
+
+    private final String label;
+
+    Route(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    // 시스템 프로퍼티 키에 쓰는 이름 (loadtest.mix.one, loadtest.slo.one.p99-ms)
+    public String key() {
+        return name().toLowerCase();
+    }
+}
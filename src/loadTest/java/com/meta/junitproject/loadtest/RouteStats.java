@@ -0,0 +1,42 @@
+package com.meta.junitproject.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// route 하나의 요청 수 / 에러 수 / latency 분포 (마이크로초 단위 HdrHistogram)
+public class RouteStats {
+
+    private final Histogram latencyMicros = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+    private final LongAdder errors = new LongAdder();
+
+    public void record(long latencyNanos, boolean error) {
+        latencyMicros.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), latencyMicros.getHighestTrackableValue()));
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    public void reset() {
+        latencyMicros.reset();
+        errors.reset();
+    }
+
+    public long count() {
+        return latencyMicros.getTotalCount();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    public double percentileMillis(double percentile) {
+        return latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public double maxMillis() {
+        return latencyMicros.getMaxValue() / 1000.0;
+    }
+}
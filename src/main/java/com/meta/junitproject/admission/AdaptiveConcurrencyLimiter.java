@@ -0,0 +1,70 @@
+package com.meta.junitproject.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 서버 전체 동시 처리 요청 수 제한 (AIMD)
+ * - 응답 시간이 latency-threshold 이하이고 limit의 절반 이상을 쓰고 있으면 limit을 조금씩 늘린다. (+1/limit, 요청 limit개마다 +1)
+ * - latency-threshold를 넘으면 limit에 backoff-ratio를 곱해 줄인다. (한 번 느려진 것이 연달아 여러 번 줄이지 않도록 threshold 간격으로 한 번만)
+ * 응답 시간은 대부분 DB 시간이라, DB가 느려지면 limit이 줄어 커넥션 풀 앞에 요청이 쌓이기 전에 거절(503)한다.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile double limit;
+    private long decreasedAt;
+    private boolean decreased;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // 응답 시간을 모를 때 (비동기 응답 등) limit은 그대로 두고 자리만 반납
+    public void release() {
+        inflight.decrementAndGet();
+    }
+
+    public void release(long latencyNanos, long nowNanos) {
+        int current = inflight.getAndDecrement();
+        synchronized (this) {
+            if (latencyNanos > latencyThresholdNanos) {
+                if (!decreased || nowNanos - decreasedAt >= latencyThresholdNanos) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    decreasedAt = nowNanos;
+                    decreased = true;
+                }
+            } else if (current * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
@@ -0,0 +1,137 @@
+package com.meta.junitproject.admission;
+
+import com.meta.junitproject.web.handler.ex.BookTooManyRequestsException;
+import com.meta.junitproject.web.handler.ex.BookUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 허용 여부 (book.admission.enabled=true일 때 /api/** 에 적용)
+ * 1. 클라이언트별 rate limit (ClientRateLimiter) -> 429 + Retry-After
+ * 2. 서버 전체 동시 처리 수 제한 (AdaptiveConcurrencyLimiter) -> 503
+ * 거절은 예외로 던져 GlobalExceptionHandler가 응답한다. (BookApiMetricsInterceptor에도 status로 집계됨)
+ *
+ * 클라이언트는 remoteAddr로 구분한다. trusted-clients(내부 gateway 등)에서 온 요청만 client-header(X-Client-Id) 값으로 구분한다.
+ * (ClientKeys.forRateLimit, 프록시 뒤라면 server.forward-headers-strategy로 remoteAddr를 실제 클라이언트 주소로 맞춘다.)
+ *
+ * 계측: book.admission.requests(route, outcome=admitted|rate_limited|shed), book.admission.concurrency.limit / inflight
+ */
+public class BookAdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ADMITTED_ATTRIBUTE = BookAdmissionInterceptor.class.getName() + ".admitted";
+    private static final String ASYNC_ATTRIBUTE = BookAdmissionInterceptor.class.getName() + ".async"; // true: 자리 반납함
+
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final String clientHeader;
+    private final Set<String> trustedClients;
+    private final Map<RouteClass, Counter> admitted = new EnumMap<>(RouteClass.class);
+    private final Map<RouteClass, Counter> rateLimited = new EnumMap<>(RouteClass.class);
+    private final Map<RouteClass, Counter> shed = new EnumMap<>(RouteClass.class);
+
+    public BookAdmissionInterceptor(ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                    String clientHeader, Set<String> trustedClients, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.clientHeader = clientHeader;
+        this.trustedClients = trustedClients;
+        for (RouteClass routeClass : RouteClass.values()) {
+            admitted.put(routeClass, counter(meterRegistry, routeClass, "admitted"));
+            rateLimited.put(routeClass, counter(meterRegistry, routeClass, "rate_limited"));
+            shed.put(routeClass, counter(meterRegistry, routeClass, "shed"));
+        }
+        Gauge.builder("book.admission.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("book.admission.concurrency.inflight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInflight)
+                .description("requests currently admitted")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // async dispatch(export)로 다시 들어온 요청은 이미 허용된 요청
+        if (!(handler instanceof HandlerMethod) || request.getAttribute(ADMITTED_ATTRIBUTE) != null) {
+            return true;
+        }
+
+        RouteClass routeClass = RouteClass.of(request.getMethod(),
+                (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+        long now = System.nanoTime();
+
+        long waitNanos = rateLimiter.tryAcquire(ClientKeys.forRateLimit(request, clientHeader, trustedClients), routeClass, now);
+        if (waitNanos > 0) {
+            rateLimited.get(routeClass).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+            throw new BookTooManyRequestsException("요청이 너무 많습니다. 잠시 후 다시 시도해주세요.");
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            shed.get(routeClass).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            throw new BookUnavailableException("서버가 바쁩니다. 잠시 후 다시 시도해주세요.");
+        }
+
+        admitted.get(routeClass).increment();
+        request.setAttribute(ADMITTED_ATTRIBUTE, now);
+        return true;
+    }
+
+    // 비동기 응답은 걸린 시간이 DB 지연을 나타내지 않으므로 limit 조정에 쓰지 않는다.
+    // - 변경 내역 long-poll(DeferredResult): 기다리는 동안 스레드도 커넥션도 잡지 않으므로 자리를 바로 반납한다.
+    // - export(StreamingResponseBody): 스트리밍 내내 커넥션과 트랜잭션을 잡으므로 끝날 때까지 자리를 잡고 있는다.
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(ADMITTED_ATTRIBUTE) == null || request.getAttribute(ASYNC_ATTRIBUTE) != null) {
+            return;
+        }
+        boolean released = isDeferredResult(handler);
+        if (released) {
+            concurrencyLimiter.release();
+        }
+        request.setAttribute(ASYNC_ATTRIBUTE, released);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(ADMITTED_ATTRIBUTE);
+        if (start == null) {
+            return; // 허용 전에 거절됨
+        }
+        request.removeAttribute(ADMITTED_ATTRIBUTE);
+        Object released = request.getAttribute(ASYNC_ATTRIBUTE);
+        if (released != null) {
+            if (!(Boolean) released) {
+                concurrencyLimiter.release();
+            }
+            return; // long-poll은 비동기로 넘어갈 때 이미 반납함
+        }
+        long now = System.nanoTime();
+        concurrencyLimiter.release(now - (Long) start, now);
+    }
+
+    private static boolean isDeferredResult(Object handler) {
+        return handler instanceof HandlerMethod
+                && DeferredResult.class.isAssignableFrom(((HandlerMethod) handler).getReturnType().getParameterType());
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, RouteClass routeClass, String outcome) {
+        return Counter.builder("book.admission.requests")
+                .description("requests admitted or rejected by rate limit / concurrency limit")
+                .tag("route", routeClass.name().toLowerCase())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,34 @@
+package com.meta.junitproject.admission;
+
+import org.springframework.util.StringUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Set;
+
+/**
+ * 요청한 클라이언트 구분값: header(X-Client-Id) 값, 없으면 remoteAddr
+ * (프록시 뒤라면 server.forward-headers-strategy로 remoteAddr를 실제 클라이언트 주소로 맞춘다.)
+ */
+public final class ClientKeys {
+
+    private ClientKeys() {
+    }
+
+    public static String of(HttpServletRequest request, String header) {
+        String client = request.getHeader(header);
+        return StringUtils.hasText(client) ? client : request.getRemoteAddr();
+    }
+
+    // rate limit용: header 값은 클라이언트가 마음대로 바꿀 수 있으므로 믿을 수 있는 호출자(trustedAddresses, 내부 gateway 등)가
+    // 보낸 것만 쓰고, 나머지는 remoteAddr로 구분한다. (요청마다 값을 바꿔 새 버킷을 받거나 다른 클라이언트의 버킷을 밀어내지 못하게)
+    public static String forRateLimit(HttpServletRequest request, String header, Set<String> trustedAddresses) {
+        String remoteAddr = request.getRemoteAddr();
+        if (trustedAddresses.contains(remoteAddr)) {
+            String client = request.getHeader(header);
+            if (StringUtils.hasText(client)) {
+                return "client:" + client;
+            }
+        }
+        return remoteAddr;
+    }
+}
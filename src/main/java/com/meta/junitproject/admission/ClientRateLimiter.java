@@ -0,0 +1,48 @@
+package com.meta.junitproject.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 클라이언트(IP, 믿을 수 있는 호출자는 X-Client-Id)별 RouteClass별 토큰 버킷
+ * 버킷은 Caffeine에 담아 오래 안 쓰인 클라이언트는 지우고, 최대 max-clients개까지만 유지한다.
+ * (지워진 클라이언트가 다시 오면 가득 찬 버킷으로 시작한다.)
+ */
+public class ClientRateLimiter {
+
+    private final Map<RouteClass, Budget> budgets;
+    private final Cache<String, TokenBucket> buckets;
+
+    public ClientRateLimiter(Map<RouteClass, Budget> budgets, long maxClients, Duration idleTimeout) {
+        this.budgets = new EnumMap<>(budgets);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients * RouteClass.values().length)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    // 통과하면 0, 아니면 다음 토큰까지 남은 시간(ns)
+    public long tryAcquire(String client, RouteClass routeClass, long nowNanos) {
+        Budget budget = budgets.get(routeClass);
+        if (budget == null) {
+            return 0; // 예산을 정하지 않은 종류는 제한하지 않는다.
+        }
+        TokenBucket bucket = buckets.get(routeClass.name() + ':' + client,
+                key -> new TokenBucket(budget.capacity, budget.refillPerSecond, nowNanos));
+        return bucket.tryAcquire(nowNanos);
+    }
+
+    public static class Budget {
+        private final long capacity;
+        private final double refillPerSecond;
+
+        public Budget(long capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
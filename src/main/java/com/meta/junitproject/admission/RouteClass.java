@@ -0,0 +1,25 @@
+package com.meta.junitproject.admission;
+
+import org.springframework.http.HttpMethod;
+
+import java.util.Set;
+
+/**
+ * 요청 종류별로 rate limit 예산을 따로 둔다.
+ * - READ: 한 건 조회, 검색 (인덱스/캐시)
+ * - LIST: 전체 목록, export (테이블 전체 스캔)
+ * - WRITE: 등록, 수정, 삭제
+ */
+public enum RouteClass {
+    READ, LIST, WRITE;
+
+    private static final Set<String> LIST_PATTERNS = Set.of("/api/v1/book", "/api/v1/book/export");
+
+    // pattern: 매칭된 @RequestMapping 경로 (HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)
+    public static RouteClass of(String method, String pattern) {
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return WRITE;
+        }
+        return LIST_PATTERNS.contains(pattern) ? LIST : READ;
+    }
+}
@@ -0,0 +1,40 @@
+package com.meta.junitproject.admission;
+
+/**
+ * 토큰 버킷 (클라이언트 1명 x RouteClass 1개)
+ * capacity만큼 한 번에 몰아서 쓸 수 있고(burst), 초당 refillPerSecond개씩 다시 찬다.
+ * 시각은 호출하는 쪽에서 System.nanoTime()으로 넘긴다. (테스트에서 시간을 고정하기 위해)
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(long capacity, double refillPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.refilledAt = nowNanos;
+    }
+
+    // 토큰이 있으면 하나 쓰고 0, 없으면 다음 토큰까지 남은 시간(ns)
+    public synchronized long tryAcquire(long nowNanos) {
+        refill(nowNanos);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) / refillPerNano));
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - refilledAt;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            refilledAt = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.meta.junitproject.config;
+
+import com.meta.junitproject.admission.AdaptiveConcurrencyLimiter;
+import com.meta.junitproject.admission.BookAdmissionInterceptor;
+import com.meta.junitproject.admission.ClientRateLimiter;
+import com.meta.junitproject.admission.RouteClass;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 요청 허용 제어 (book.admission.*), 설명은 BookAdmissionInterceptor
+ * - trusted-clients: client-header 값을 믿고 클라이언트 구분에 쓸 remoteAddr 목록 (그 외에는 IP로 구분)
+ * - rate.read / rate.list / rate.write: 클라이언트별 burst(capacity)와 초당 보충량(refill-per-second)
+ * - concurrency: 서버 전체 동시 처리 수 limit의 시작값, 범위, 줄이는 기준 응답 시간과 비율
+ */
+@ConditionalOnProperty(name = "book.admission.enabled", havingValue = "true")
+@Configuration
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    private final BookAdmissionInterceptor bookAdmissionInterceptor;
+
+    public AdmissionConfig(MeterRegistry meterRegistry,
+                           @Value("${book.admission.client-header:X-Client-Id}") String clientHeader,
+                           @Value("${book.admission.trusted-clients:}") List<String> trustedClients,
+                           @Value("${book.admission.max-clients:100000}") long maxClients,
+                           @Value("${book.admission.idle-timeout:10m}") Duration idleTimeout,
+                           @Value("${book.admission.rate.read.capacity:200}") long readCapacity,
+                           @Value("${book.admission.rate.read.refill-per-second:100}") double readRefill,
+                           @Value("${book.admission.rate.list.capacity:10}") long listCapacity,
+                           @Value("${book.admission.rate.list.refill-per-second:2}") double listRefill,
+                           @Value("${book.admission.rate.write.capacity:50}") long writeCapacity,
+                           @Value("${book.admission.rate.write.refill-per-second:20}") double writeRefill,
+                           @Value("${book.admission.concurrency.initial-limit:50}") int initialLimit,
+                           @Value("${book.admission.concurrency.min-limit:5}") int minLimit,
+                           @Value("${book.admission.concurrency.max-limit:200}") int maxLimit,
+                           @Value("${book.admission.concurrency.latency-threshold:500ms}") Duration latencyThreshold,
+                           @Value("${book.admission.concurrency.backoff-ratio:0.9}") double backoffRatio) {
+        Map<RouteClass, ClientRateLimiter.Budget> budgets = new EnumMap<>(RouteClass.class);
+        budgets.put(RouteClass.READ, new ClientRateLimiter.Budget(readCapacity, readRefill));
+        budgets.put(RouteClass.LIST, new ClientRateLimiter.Budget(listCapacity, listRefill));
+        budgets.put(RouteClass.WRITE, new ClientRateLimiter.Budget(writeCapacity, writeRefill));
+
+        this.bookAdmissionInterceptor = new BookAdmissionInterceptor(
+                new ClientRateLimiter(budgets, maxClients, idleTimeout),
+                new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyThreshold.toNanos(), backoffRatio),
+                clientHeader,
+                new HashSet<>(trustedClients),
+                meterRegistry);
+    }
+
+    // BookApiMetricsInterceptor(order 0) 다음에 실행해서 거절된 요청도 endpoint별 에러로 집계되게 한다.
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(bookAdmissionInterceptor).addPathPatterns("/api/**").order(1);
+    }
+}
@@ -0,0 +1,66 @@
+package com.meta.junitproject.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 무효화(evict/clear)마다 generation을 올리고,
+ * 조회가 시작된 뒤 generation이 바뀌었으면 읽어온 값을 캐시에 넣지 않는다.
+ *
+ * 읽기 A가 수정 전 값을 읽음 -> 수정 B 커밋 + evict -> A가 옛날 값을 put
+ * 위 순서로 커밋 이후에도 옛날 값이 남는 문제를 막는다. (@Cacheable(sync = true)로 사용해야 함)
+ */
+public class BookCaffeineCache extends CaffeineCache {
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public BookCaffeineCache(String name, Cache<Object, Object> cache) {
+        super(name, cache, false);
+    }
+
+    // Caffeine의 get(key, mappingFunction)에 맡겨서 같은 key의 동시 miss는 한 번만 조회하고 나머지는 그 결과를 기다린다.
+    // 조회하는 동안 무효화됐으면 null을 돌려줘서 캐시에 넣지 않는다. (기다리던 요청들은 각자 다시 조회)
+    // 무효화(invalidate)는 진행 중인 조회가 끝날 때까지 기다렸다가 지우므로 generation 비교 직후 무효화돼도 남지 않는다.
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long startGeneration = generation.get();
+        Object[] loaded = new Object[1];
+        Object cached = getNativeCache().get(key, k -> {
+            try {
+                loaded[0] = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            return generation.get() == startGeneration ? loaded[0] : null;
+        });
+        return (T) (cached != null ? cached : loaded[0]);
+    }
+
+    @Override
+    public void evict(Object key) {
+        generation.incrementAndGet();
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        generation.incrementAndGet();
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        generation.incrementAndGet();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        generation.incrementAndGet();
+        return super.invalidate();
+    }
+}
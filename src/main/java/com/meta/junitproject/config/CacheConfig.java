@@ -0,0 +1,48 @@
+package com.meta.junitproject.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 책 한 건 조회(BookRespDto) 캐시
+ * - book.cache.enabled=false면 NoOpCacheManager (매번 DB 조회)
+ * - 크기(maximum-size) + TTL(expire-after-write) 기준으로 evict
+ * - transactionAware: 수정/삭제 시 evict는 트랜잭션 커밋 이후에 일어난다.
+ * - 캐시 advice를 트랜잭션 advice보다 바깥에 둔다. -> 캐시 hit이면 트랜잭션(커넥션)을 열지 않는다.
+ */
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+@Configuration
+public class CacheConfig {
+
+    public static final String BOOK_CACHE = "book";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${book.cache.enabled:false}") boolean enabled,
+                                     @Value("${book.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${book.cache.expire-after-write:60s}") Duration expireAfterWrite) {
+        if (!enabled) {
+            return new NoOpCacheManager();
+        }
+
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats();
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        // SimpleCacheManager에는 transactionAware 설정이 없으므로 캐시를 직접 감싼다.
+        cacheManager.setCaches(List.of(new TransactionAwareCacheDecorator(new BookCaffeineCache(BOOK_CACHE, caffeine.build()))));
+        return cacheManager;
+    }
+}
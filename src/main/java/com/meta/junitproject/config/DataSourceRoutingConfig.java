@@ -0,0 +1,86 @@
+package com.meta.junitproject.config;
+
+import com.meta.junitproject.routing.ReadYourWritesInterceptor;
+import com.meta.junitproject.routing.ReplicaRoutingDataSource;
+import com.meta.junitproject.routing.ReplicaSet;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기/쓰기 분리 (book.datasource.routing.enabled=true)
+ * - primary: spring.datasource.* / spring.datasource.hikari.* 그대로
+ * - replica: book.datasource.replicas.urls (계정, 드라이버, 풀 설정은 primary와 같고 풀 크기만 따로, readOnly 커넥션)
+ * readOnly 트랜잭션(BookService 조회)은 replica, 나머지는 primary로 간다. 규칙은 ReplicaSet 참고
+ * urls가 비어 있으면 모두 primary로 간다.
+ */
+@ConditionalOnProperty(name = "book.datasource.routing.enabled", havingValue = "true")
+@Configuration
+public class DataSourceRoutingConfig implements WebMvcConfigurer {
+
+    @Value("${book.admission.client-header:X-Client-Id}")
+    private String clientHeader;
+
+    @Value("${book.datasource.read-your-writes.window:5s}")
+    private Duration readYourWritesWindow;
+
+    @Value("${book.datasource.read-your-writes.max-clients:100000}")
+    private long readYourWritesMaxClients;
+
+    @Bean
+    public ReplicaSet replicaSet(DataSourceProperties properties, Environment environment,
+                                 @Value("${book.datasource.replicas.urls:}") List<String> replicaUrls,
+                                 @Value("${book.datasource.replicas.maximum-pool-size:10}") int replicaPoolSize,
+                                 @Value("${book.datasource.replicas.max-lag:2s}") Duration maxLag,
+                                 @Value("${book.datasource.replicas.lag-query:SHOW SLAVE STATUS}") String lagQuery) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (!StringUtils.hasText(url)) {
+                continue;
+            }
+            HikariConfig config = new HikariConfig();
+            primary.copyStateTo(config);
+            config.setJdbcUrl(url.trim());
+            config.setPoolName(primary.getPoolName() + "-replica-" + replicas.size());
+            config.setReadOnly(true);
+            config.setMaximumPoolSize(replicaPoolSize);
+            config.setMinimumIdle(replicaPoolSize);
+            config.setInitializationFailTimeout(-1); // replica가 내려가 있어도 기동은 한다. (지연 확인에서 제외됨)
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaSet(primary, replicas, maxLag.getSeconds(), lagQuery);
+    }
+
+    // 트랜잭션이 readOnly로 시작된 뒤 첫 SQL 시점에 커넥션을 고르도록 lazy proxy로 감싼다.
+    @Primary
+    @Bean
+    public DataSource dataSource(ReplicaSet replicaSet) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicaSet));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(clientHeader, readYourWritesWindow, readYourWritesMaxClients))
+                .addPathPatterns("/api/**");
+    }
+}
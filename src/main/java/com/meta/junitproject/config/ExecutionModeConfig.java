@@ -0,0 +1,36 @@
+package com.meta.junitproject.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 요청 처리 스레드 모델 (book.execution.mode)
+ * - platform (기본): 톰캣 스레드 풀 (server.tomcat.threads.max). JDBC를 기다리는 동안 스레드를 점유하므로 동시 처리 수 = 스레드 수
+ * - virtual: 요청마다 가상 스레드. JDBC 대기 중에는 캐리어 스레드를 반납하므로 동시 처리 수는 커넥션 풀(Hikari)이 결정한다.
+ *   Java 21 이상 런타임에서만 동작한다. (컴파일은 11 기준이라 reflection으로 생성, 없으면 기동 실패)
+ */
+@Configuration
+public class ExecutionModeConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "book.execution.mode", havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("book.execution.mode=virtual 은 Java 21 이상에서 실행해야 합니다. (현재 "
+                    + System.getProperty("java.version") + ")", e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.meta.junitproject.config;
+
+import com.meta.junitproject.metrics.BookApiMetricsInterceptor;
+import com.meta.junitproject.metrics.BookServiceMetricsAspect;
+import com.meta.junitproject.metrics.ConnectionHoldTimePostProcessor;
+import com.meta.junitproject.metrics.SqlStatementCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 계측 (actuator /actuator/prometheus 에서 수집)
+ * - book.api.requests / book.api.errors: endpoint별 요청 수, 에러 수, latency histogram
+ * - book.service: service 메서드별 latency
+ * - spring.data.repository.invocations: repository 호출별 latency (spring boot 기본)
+ * - book.sql.statements: SQL 문장 수
+ * - book.db.connection.hold: endpoint별 커넥션 점유 시간 (+ hikaricp.connections.*: 풀 상태, spring boot 기본)
+ */
+@RequiredArgsConstructor
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new BookApiMetricsInterceptor(meterRegistry)).addPathPatterns("/api/**");
+    }
+
+    @Bean
+    public BookServiceMetricsAspect bookServiceMetricsAspect() {
+        return new BookServiceMetricsAspect(meterRegistry);
+    }
+
+    // static: BeanPostProcessor는 다른 빈보다 먼저 만들어져야 한다. (MetricsConfig를 일찍 생성하지 않도록)
+    @Bean
+    public static ConnectionHoldTimePostProcessor connectionHoldTimePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ConnectionHoldTimePostProcessor(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                new SqlStatementCounter(meterRegistry));
+    }
+}
@@ -0,0 +1,10 @@
+package com.meta.junitproject.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// MailDispatcher 등 @Scheduled 백그라운드 작업 활성화
+@EnableScheduling
+@Configuration
+public class SchedulingConfig {
+}
@@ -0,0 +1,58 @@
+package com.meta.junitproject.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.meta.junitproject.web.json.BookJsonModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 응답 형식 (Accept 헤더로 선택)
+ * - application/json (기본)
+ * - application/cbor, application/x-jackson-smile: 같은 dto를 바이너리로 (필드명 반복, 숫자 문자열화 없음)
+ * 바이너리 ObjectMapper도 spring boot의 jackson 설정(spring.jackson.*, 모듈)을 그대로 쓴다.
+ * 응답 dto는 reflection 대신 손으로 쓴 직렬화기(BookJsonModule)로 쓴다. (세 형식 모두)
+ * gzip 압축은 server.compression (톰캣)에서 처리한다.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    // Module bean은 spring boot가 Jackson2ObjectMapperBuilder에 등록한다. -> 기본 ObjectMapper, cbor, smile 모두
+    @Bean
+    public Module bookJsonModule() {
+        return new BookJsonModule();
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    // 같은 url이라도 Accept에 따라 본문이 달라지므로 중간 캐시가 섞지 않도록 Vary: Accept
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+}
@@ -4,15 +4,23 @@ import com.meta.junitproject.web.dto.response.BookRespDto;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Where;
 
 import javax.persistence.*;
+import java.time.Instant;
 
+// soft delete된 행(deleted = true)은 모든 조회에서 빠진다. 실제 삭제는 BookCompactionJob이 한다.
+@Where(clause = "deleted = false")
+@Table(indexes = @Index(name = "idx_book_deleted_modified", columnList = "deleted, modifiedAt"))
 @NoArgsConstructor
 @Getter
 @Entity
 public class Book {
 
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // IDENTITY는 insert 시점에 id를 받아와야 해서 JDBC batch insert가 불가능하다.
+    // sequence + pooled(allocationSize) 전략으로 id를 미리 할당받아 insert를 batch로 묶는다.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     @Id
     private Long id;
 
@@ -22,6 +30,19 @@ public class Book {
     @Column(length = 20, nullable = false)
     private String author;
 
+    // 수정될 때마다 hibernate가 1씩 올린다. (낙관적 락 + ETag)
+    // primitive: null이면 spring data가 새 엔티티로 판단하는 것을 막는다. (id로 판단)
+    @Version
+    private long version;
+
+    // Last-Modified 헤더용
+    @Column(nullable = false)
+    private Instant modifiedAt;
+
+    // soft delete 표시 (tombstone), 삭제 시각은 modifiedAt
+    @Column(nullable = false)
+    private boolean deleted;
+
     @Builder
     public Book(Long id, String title, String author) {
         this.id = id;
@@ -34,11 +55,14 @@ public class Book {
         this.author = author;
     }
 
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        this.modifiedAt = Instant.now();
+    }
+
+    // 건마다 builder 객체를 만들지 않도록 생성자를 바로 호출한다. (목록 변환, export)
     public BookRespDto toDto() {
-        return BookRespDto.builder()
-                .id(id)
-                .title(title)
-                .author(author)
-                .build();
+        return new BookRespDto(id, title, author, version, modifiedAt);
     }
 }
@@ -0,0 +1,68 @@
+package com.meta.junitproject.domain;
+
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 책 목록 전체의 버전 (목록 ETag / Last-Modified)
+ * 건수, 최대 id, 버전 합계, 최대 modifiedAt으로 목록 내용이 바뀌었는지 판단한다.
+ * (삭제와 등록이 겹쳐 건수/최대 id/버전 합계가 그대로여도 등록된 책의 modifiedAt이 최대 modifiedAt을 바꾼다.)
+ */
+@Getter
+public class BookCatalogVersion {
+
+    private final long count;
+    private final long maxId;
+    private final long versionSum;
+    private final Instant maxModifiedAt; // ETag용 (DB의 max(modifiedAt)), 비어 있으면 null
+    private final Instant modifiedAt; // Last-Modified용, 비어 있으면 null
+
+    public BookCatalogVersion(Long count, Long maxId, Long versionSum, Instant maxModifiedAt) {
+        this(count, maxId, versionSum, maxModifiedAt, maxModifiedAt);
+    }
+
+    private BookCatalogVersion(long count, long maxId, long versionSum, Instant maxModifiedAt, Instant modifiedAt) {
+        this.count = count;
+        this.maxId = maxId;
+        this.versionSum = versionSum;
+        this.maxModifiedAt = maxModifiedAt;
+        this.modifiedAt = modifiedAt;
+    }
+
+    // 조회한 목록(id 오름차순)에서 바로 계산 -> findCatalogVersion()과 같은 값, 본문과 ETag가 같은 조회에서 나온다.
+    public static BookCatalogVersion of(List<BookRespDto> books) {
+        long versionSum = 0;
+        Instant maxModifiedAt = null;
+        for (BookRespDto book : books) {
+            if (book.getVersion() != null) {
+                versionSum += book.getVersion();
+            }
+            if (book.getModifiedAt() != null && (maxModifiedAt == null || book.getModifiedAt().isAfter(maxModifiedAt))) {
+                maxModifiedAt = book.getModifiedAt();
+            }
+        }
+        long maxId = books.isEmpty() ? 0L : books.get(books.size() - 1).getId();
+        return new BookCatalogVersion((long) books.size(), maxId, versionSum, maxModifiedAt);
+    }
+
+    // 마지막 변경 시각이 더 늦으면(삭제 등) 그 시각을 Last-Modified로 쓴다. (ETag는 그대로)
+    public BookCatalogVersion changedAt(Instant changedAt) {
+        if (changedAt == null || (modifiedAt != null && !changedAt.isAfter(modifiedAt))) {
+            return this;
+        }
+        return new BookCatalogVersion(count, maxId, versionSum, maxModifiedAt, changedAt);
+    }
+
+    // weak ETag: 목록은 json/cbor/smile, gzip 여부에 따라 바이트가 달라진다. (톰캣도 strong ETag 응답은 압축하지 않음)
+    // modifiedAt은 DB 컬럼 정밀도(마이크로초)로 맞춰서 스냅샷에서 만든 ETag와 같게 한다.
+    public String getETag() {
+        return "W/\"c" + count + "-" + maxId + "-" + versionSum + "-" + epochMicros(maxModifiedAt) + "\"";
+    }
+
+    private static long epochMicros(Instant instant) {
+        return instant == null ? 0 : instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,67 @@
+package com.meta.junitproject.domain;
+
+import com.meta.junitproject.web.dto.response.BookChangeRespDto;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * 책 변경 내역 (change feed), 책을 바꾼 트랜잭션 안에서 같이 insert된다. (BookChangeFeed)
+ * 소비자는 GET /api/v1/book/changes?since=<seq>로 마지막으로 받은 seq 이후만 가져간다.
+ * 오래된 내역은 BookChangeRetentionJob이 retention 이후 지운다.
+ */
+@Table(indexes = @Index(name = "idx_book_change_changed_at", columnList = "changedAt"))
+@NoArgsConstructor
+@Getter
+@Entity
+public class BookChange {
+
+    // BookChangeCounter에서 받는다. (커밋 순서, 빈 번호 없음 -> 읽는 쪽은 기다리거나 건너뛸 번호가 없다.)
+    @Id
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10, nullable = false)
+    private BookChangeType type;
+
+    @Column(nullable = false)
+    private Long bookId;
+
+    // 삭제면 null (변경 후 값)
+    private Long version;
+
+    @Column(length = 50)
+    private String title;
+
+    @Column(length = 20)
+    private String author;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+
+    @Builder
+    public BookChange(Long seq, BookChangeType type, Long bookId, Long version, String title, String author) {
+        this.seq = seq;
+        this.type = type;
+        this.bookId = bookId;
+        this.version = version;
+        this.title = title;
+        this.author = author;
+        this.changedAt = Instant.now();
+    }
+
+    public BookChangeRespDto toDto() {
+        return BookChangeRespDto.builder()
+                .seq(seq)
+                .type(type.name())
+                .bookId(bookId)
+                .version(version)
+                .title(title)
+                .author(author)
+                .changedAt(changedAt)
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.meta.junitproject.domain;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * 변경 내역 번호(BookChange.seq) 카운터, 행은 1개(id = ID)
+ * 번호를 받을 때 이 행을 update로 잠그고 커밋까지 들고 있는다. (BookChangeFeed)
+ * -> 번호 순서 = 커밋 순서, 롤백되면 카운터도 되돌아가서 번호에 빈 곳(gap)이 생기지 않는다.
+ */
+@NoArgsConstructor
+@Getter
+@Entity
+public class BookChangeCounter {
+
+    public static final Long ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long lastSeq; // 마지막으로 나눠준 번호
+
+    public BookChangeCounter(Long id, Long lastSeq) {
+        this.id = id;
+        this.lastSeq = lastSeq;
+    }
+}
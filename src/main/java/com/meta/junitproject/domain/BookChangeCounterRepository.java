@@ -0,0 +1,20 @@
+package com.meta.junitproject.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BookChangeCounterRepository extends JpaRepository<BookChangeCounter, Long> {
+
+    // 카운터 행을 잠그고(커밋까지) count만큼 올린다. 행이 없으면 0
+    @Modifying
+    @Query("update BookChangeCounter c set c.lastSeq = c.lastSeq + :count where c.id = :id")
+    int increase(@Param("id") Long id, @Param("count") long count);
+
+    // increase 이후 같은 트랜잭션에서 읽으면 자기가 올린 값
+    @Query("select c.lastSeq from BookChangeCounter c where c.id = :id")
+    Long findLastSeq(@Param("id") Long id);
+}
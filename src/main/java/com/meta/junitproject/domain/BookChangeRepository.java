@@ -0,0 +1,34 @@
+package com.meta.junitproject.domain;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BookChangeRepository extends JpaRepository<BookChange, Long> {
+
+    // since 이후 내역을 seq 순서로 (Pageable은 batch 크기 용도, pk 범위 조회)
+    @Query("select c from BookChange c where c.seq > :since order by c.seq asc")
+    List<BookChange> findAfter(@Param("since") Long since, Pageable pageable);
+
+    // BookChangeCounter를 처음 만들 때 (기존 내역 다음 번호부터)
+    @Query("select coalesce(max(c.seq), 0) from BookChange c")
+    Long findMaxSeq();
+
+    // since 이하 내역이 하나도 없으면 그 사이가 retention으로 지워졌을 수 있다.
+    boolean existsBySeqLessThanEqual(Long seq);
+
+    @Query(value = "select seq from BookChange where changedAt < :before order by seq limit :limit", nativeQuery = true)
+    List<Long> findExpiredSeqs(@Param("before") Instant before, @Param("limit") int limit);
+
+    @Modifying
+    @Query("delete from BookChange c where c.seq in :seqs")
+    int deleteBySeqs(@Param("seqs") Collection<Long> seqs);
+}
@@ -0,0 +1,5 @@
+package com.meta.junitproject.domain;
+
+public enum BookChangeType {
+    CREATED, UPDATED, DELETED
+}
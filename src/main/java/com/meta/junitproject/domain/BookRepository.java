@@ -1,8 +1,92 @@
 package com.meta.junitproject.domain;
 
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository  // 생략 가능
 public interface BookRepository extends JpaRepository<Book, Long> {
+
+    // Book의 @Where(deleted = false)는 select에만 붙으므로 update/delete 문장과 native 쿼리는 deleted 조건을 직접 건다.
+
+    // 조회 전용: 엔티티를 만들지 않고(영속성 컨텍스트, 스냅샷 없음) 필요한 컬럼만 바로 dto로 받는다.
+    @Query("select new com.meta.junitproject.web.dto.response.BookRespDto(b.id, b.title, b.author, b.version, b.modifiedAt) " +
+            "from Book b order by b.id asc")
+    List<BookRespDto> findAllDtos();
+
+    @Query("select new com.meta.junitproject.web.dto.response.BookRespDto(b.id, b.title, b.author, b.version, b.modifiedAt) " +
+            "from Book b where b.id = :id")
+    Optional<BookRespDto> findDtoById(@Param("id") Long id);
+
+    // 조건부 수정: SELECT 없이 update 한 문장, 그 사이 다른 수정이 있었으면 0건
+    // (JPQL update는 @PreUpdate를 거치지 않으므로 modifiedAt은 직접 넘긴다.)
+    @Modifying
+    @Query("update Book b set b.title = :title, b.author = :author, b.version = b.version + 1, b.modifiedAt = :modifiedAt " +
+            "where b.id = :id and b.version = :version and b.deleted = false")
+    int updateIfVersion(@Param("id") Long id, @Param("version") long version, @Param("title") String title,
+                        @Param("author") String author, @Param("modifiedAt") Instant modifiedAt);
+
+    // 일괄 삭제: id마다 select + delete 하지 않고 한 문장으로
+    @Modifying
+    @Query("delete from Book b where b.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // soft delete: tombstone만 남긴다. (version을 올려서 ETag, 목록 버전도 바뀐다.)
+    @Modifying
+    @Query("update Book b set b.deleted = true, b.version = b.version + 1, b.modifiedAt = :modifiedAt " +
+            "where b.id in :ids and b.deleted = false")
+    int softDeleteByIds(@Param("ids") Collection<Long> ids, @Param("modifiedAt") Instant modifiedAt);
+
+    // 삭제 전에 요청한 id 중 실제로 살아 있는 것만 잠그고 읽는다. (없는 id, 이미 tombstone인 id는 이벤트를 내지 않음)
+    // 동시에 같은 id를 지우는 요청은 먼저 잠근 쪽이 커밋할 때까지 기다렸다가 남은 것만 읽는다.
+    @Query(value = "select id from Book where id in (:ids) and deleted = false order by id for update", nativeQuery = true)
+    List<Long> lockLiveIds(@Param("ids") Collection<Long> ids);
+
+    // 범위 삭제 전에 실제 있는 id만 한 번에 읽는다. (이벤트/캐시 무효화 대상)
+    @Query("select b.id from Book b where b.id between :from and :to order by b.id asc")
+    List<Long> findIdsBetween(@Param("from") Long from, @Param("to") Long to);
+
+    // compaction: retention이 지난 tombstone을 chunk 단위로 읽어서 지운다. (@Where를 피하려고 native)
+    @Query(value = "select id from Book where deleted = true and modifiedAt < :before order by id limit :limit", nativeQuery = true)
+    List<Long> findTombstoneIds(@Param("before") Instant before, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "delete from Book where id in (:ids) and deleted = true", nativeQuery = true)
+    int purgeTombstones(@Param("ids") Collection<Long> ids);
+
+    // 조건부 GET(ETag)용: 본문 없이 버전만 읽는다.
+    @Query("select new com.meta.junitproject.domain.BookVersion(b.id, b.version, b.modifiedAt) from Book b where b.id = :id")
+    Optional<BookVersion> findVersionById(@Param("id") Long id);
+
+    // 목록 전체의 버전: 건수, 최대 id, 버전 합계, 최대 modifiedAt이 모두 같으면 목록 내용도 같다.
+    // (수정은 버전을 올리고, 삭제는 건수를 줄이고, 등록/수정은 modifiedAt을 올린다. 삭제 + 등록이 겹쳐도 modifiedAt이 바뀐다.)
+    @Query("select new com.meta.junitproject.domain.BookCatalogVersion(count(b), coalesce(max(b.id), 0L), " +
+            "coalesce(sum(b.version), 0L), max(b.modifiedAt)) from Book b")
+    BookCatalogVersion findCatalogVersion();
+
+    // keyset(cursor) 페이징: offset 없이 pk 인덱스로 after 다음부터 limit건만 읽는다.
+    // Pageable은 limit 용도로만 사용 (항상 PageRequest.of(0, size)) -> count 쿼리, offset 스캔 없음
+    @Query("select new com.meta.junitproject.web.dto.response.BookRespDto(b.id, b.title, b.author, b.version, b.modifiedAt) " +
+            "from Book b where b.id > :after order by b.id asc")
+    List<BookRespDto> findDtoPageAfter(@Param("after") Long after, Pageable pageable);
+
+    // 전체 목록을 한 번에 올리지 않고 fetch size 단위로 커서를 읽는다.
+    // 반드시 트랜잭션 안에서 사용하고, 사용 후 close 해야 한다. (try-with-resources)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select b from Book b order by b.id asc")
+    Stream<Book> streamAll();
 }
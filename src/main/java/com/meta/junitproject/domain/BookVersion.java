@@ -0,0 +1,41 @@
+package com.meta.junitproject.domain;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * 책 한 권의 버전 (본문 없이 ETag / Last-Modified만 만들 때 사용)
+ */
+@Getter
+public class BookVersion {
+
+    private final Long id;
+    private final long version;
+    private final Instant modifiedAt;
+
+    public BookVersion(Long id, Long version, Instant modifiedAt) {
+        this.id = id;
+        this.version = version;
+        this.modifiedAt = modifiedAt;
+    }
+
+    // 같은 id, 같은 version이면 응답 본문이 바이트 단위로 같다. -> strong ETag
+    public String getETag() {
+        return "\"b" + id + "-v" + version + "\"";
+    }
+
+    // If-Match로 받은 ETag에서 version을 꺼낸다. 이 책의 strong ETag가 아니면 null (weak ETag는 If-Match에 쓸 수 없음)
+    public static Long parseVersion(Long id, String eTag) {
+        String prefix = "\"b" + id + "-v";
+        String value = eTag.trim();
+        if (!value.startsWith(prefix) || !value.endsWith("\"") || value.length() <= prefix.length() + 1) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.substring(prefix.length(), value.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
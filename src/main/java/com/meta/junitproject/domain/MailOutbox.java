@@ -0,0 +1,52 @@
+package com.meta.junitproject.domain;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 메일 발송 outbox
+ * 책 등록 트랜잭션 안에서는 이 테이블에 한 줄만 insert하고 (메일 서버를 기다리지 않음)
+ * 실제 발송은 MailDispatcher가 백그라운드에서 모아서 처리한다.
+ * 발송 중(SENDING)에는 nextAttemptAt이 lease 만료 시각, claimToken이 가져간 dispatcher 실행을 나타낸다.
+ */
+@NoArgsConstructor
+@Getter
+@Entity
+@Table(indexes = @Index(name = "idx_mail_outbox_status_next", columnList = "status, nextAttemptAt"))
+public class MailOutbox {
+
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mail_outbox_seq")
+    @SequenceGenerator(name = "mail_outbox_seq", sequenceName = "mail_outbox_seq", allocationSize = 50)
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long bookId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10, nullable = false)
+    private MailOutboxStatus status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime sentAt;
+
+    @Column(length = 36)
+    private String claimToken;
+
+    @Builder
+    public MailOutbox(Long bookId) {
+        this.bookId = bookId;
+        this.status = MailOutboxStatus.PENDING;
+        this.attempts = 0;
+        this.nextAttemptAt = LocalDateTime.now();
+    }
+}
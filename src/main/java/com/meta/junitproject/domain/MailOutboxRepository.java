@@ -0,0 +1,48 @@
+package com.meta.junitproject.domain;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    // 발송할 차례가 된 대기 건 + lease가 끝난 발송 중 건(가져간 인스턴스가 죽었거나 멈춤)을 오래된 순으로
+    // (Pageable은 batch 크기 용도)
+    @Query("select m.id from MailOutbox m where m.status in :statuses and m.nextAttemptAt <= :now order by m.id asc")
+    List<Long> findDispatchableIds(@Param("statuses") List<MailOutboxStatus> statuses, @Param("now") LocalDateTime now,
+                                   Pageable pageable);
+
+    // 조건부 update로 가져간다. 같은 건을 다른 dispatcher가 먼저 가져갔으면 조건이 맞지 않아 건너뛴다.
+    @Modifying
+    @Query("update MailOutbox m set m.status = com.meta.junitproject.domain.MailOutboxStatus.SENDING, " +
+            "m.claimToken = :claimToken, m.nextAttemptAt = :leaseUntil " +
+            "where m.id in :ids and m.status in :statuses and m.nextAttemptAt <= :now")
+    int claim(@Param("ids") List<Long> ids, @Param("statuses") List<MailOutboxStatus> statuses,
+              @Param("now") LocalDateTime now, @Param("claimToken") String claimToken,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Query("select m from MailOutbox m where m.claimToken = :claimToken " +
+            "and m.status = com.meta.junitproject.domain.MailOutboxStatus.SENDING order by m.id asc")
+    List<MailOutbox> findClaimed(@Param("claimToken") String claimToken);
+
+    // 발송 성공한 건들은 update 한 번으로 처리 (lease가 끝나 다른 dispatcher가 가져간 건은 건드리지 않음)
+    @Modifying
+    @Query("update MailOutbox m set m.status = com.meta.junitproject.domain.MailOutboxStatus.SENT, m.sentAt = :now " +
+            "where m.id in :ids and m.claimToken = :claimToken")
+    int markSent(@Param("ids") List<Long> ids, @Param("claimToken") String claimToken, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update MailOutbox m set m.status = :status, m.attempts = :attempts, m.nextAttemptAt = :nextAttemptAt " +
+            "where m.id = :id and m.claimToken = :claimToken")
+    int markRetry(@Param("id") Long id, @Param("claimToken") String claimToken, @Param("status") MailOutboxStatus status,
+                  @Param("attempts") Integer attempts, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    long countByStatus(MailOutboxStatus status);
+}
@@ -0,0 +1,8 @@
+package com.meta.junitproject.domain;
+
+public enum MailOutboxStatus {
+    PENDING, // 발송 대기 (재시도 포함)
+    SENDING, // dispatcher가 가져가서 발송 중 (nextAttemptAt까지 lease, 지나면 다른 dispatcher가 다시 가져감)
+    SENT,    // 발송 완료
+    FAILED   // 최대 재시도 횟수 초과
+}
@@ -0,0 +1,78 @@
+package com.meta.junitproject.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * endpoint(컨트롤러 메서드)별 요청 수 / 에러 수 / latency histogram(p50, p99, p999)
+ * GlobalExceptionHandler가 예외를 에러 응답(4xx, 5xx)으로 바꾼 경우도 status로 에러를 센다.
+ */
+@RequiredArgsConstructor
+public class BookApiMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = BookApiMetricsInterceptor.class.getName() + ".start";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        EndpointContext.set(endpoint(handler));
+        // 비동기 응답(export)은 async dispatch에서 다시 들어오므로 최초 시작 시각만 남긴다.
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        EndpointContext.clear();
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (!(handler instanceof HandlerMethod) || start == null) {
+            return;
+        }
+
+        String endpoint = endpoint(handler);
+        int status = response.getStatus();
+        boolean error = ex != null || status >= 400;
+
+        Timer.builder("book.api.requests")
+                .description("BookApiController endpoint latency")
+                .tag("endpoint", endpoint)
+                .tag("status", String.valueOf(status))
+                .tag("outcome", error ? "error" : "success")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - (Long) start, TimeUnit.NANOSECONDS);
+
+        if (error) {
+            Counter.builder("book.api.errors")
+                    .tag("endpoint", endpoint)
+                    .tag("status", String.valueOf(status))
+                    .tag("exception", ex == null ? "none" : ex.getClass().getSimpleName())
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        EndpointContext.clear(); // 요청 스레드 반납 (응답은 다른 스레드에서 이어짐)
+    }
+
+    private String endpoint(Object handler) {
+        return ((HandlerMethod) handler).getMethod().getName();
+    }
+}
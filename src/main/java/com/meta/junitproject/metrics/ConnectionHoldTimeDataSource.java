@@ -0,0 +1,71 @@
+package com.meta.junitproject.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 커넥션을 빌려서(getConnection) 반납(close)할 때까지의 시간 (book.db.connection.hold)
+ * 빌린 시점의 endpoint로 태그를 붙인다. -> 어떤 API가 풀을 오래 잡고 있는지 확인용
+ * 풀 전체 대기/사용 시간은 hikaricp.connections.acquire / usage (spring boot 기본)
+ * MeterRegistry는 DataSource보다 늦게 만들어질 수 있어서 첫 반납 시점에 꺼낸다.
+ */
+public class ConnectionHoldTimeDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private volatile MeterRegistry meterRegistry;
+
+    public ConnectionHoldTimeDataSource(DataSource targetDataSource, ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        super(targetDataSource);
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(super.getConnection(username, password));
+    }
+
+    private Connection track(Connection target) {
+        String endpoint = EndpointContext.current();
+        long start = System.nanoTime();
+        boolean[] closed = {false}; // 커넥션은 한 스레드에서만 쓰인다.
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && !closed[0]) {
+                        closed[0] = true;
+                        Timer.builder("book.db.connection.hold")
+                                .description("JDBC connection hold time from borrow to close")
+                                .tag("endpoint", endpoint)
+                                .publishPercentiles(0.5, 0.99, 0.999)
+                                .register(meterRegistry())
+                                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    private MeterRegistry meterRegistry() {
+        if (meterRegistry == null) {
+            meterRegistry = meterRegistryProvider.getObject();
+        }
+        return meterRegistry;
+    }
+}
@@ -0,0 +1,26 @@
+package com.meta.junitproject.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * DataSource 빈을 ConnectionHoldTimeDataSource로 감싼다.
+ * BeanPostProcessor는 일찍 만들어지므로 MeterRegistry는 ObjectProvider로 받아 나중에 꺼낸다.
+ */
+@RequiredArgsConstructor
+public class ConnectionHoldTimePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !(bean instanceof ConnectionHoldTimeDataSource)) {
+            return new ConnectionHoldTimeDataSource((DataSource) bean, meterRegistry);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,29 @@
+package com.meta.junitproject.metrics;
+
+/**
+ * 현재 스레드가 처리 중인 API endpoint 이름 (BookApiController 메서드명 등)
+ * BookApiMetricsInterceptor가 요청 시작/종료 시 set/clear 하고,
+ * SQL 카운터처럼 요청 밖에서 동작하는 계측이 endpoint 태그를 붙일 때 사용한다.
+ */
+public final class EndpointContext {
+
+    public static final String NONE = "none"; // 스케줄러, 비동기 스레드 등 요청 밖
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private EndpointContext() {
+    }
+
+    public static String current() {
+        String endpoint = CURRENT.get();
+        return endpoint == null ? NONE : endpoint;
+    }
+
+    static void set(String endpoint) {
+        CURRENT.set(endpoint);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
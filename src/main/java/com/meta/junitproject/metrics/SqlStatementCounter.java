@@ -0,0 +1,41 @@
+package com.meta.junitproject.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * hibernate가 실행하는 SQL 문장 수 (book.sql.statements)
+ * 종류(select/insert/update/delete/other)와 요청 endpoint별로 센다. -> N+1, 불필요한 select 회귀 확인용
+ */
+@RequiredArgsConstructor
+public class SqlStatementCounter implements StatementInspector {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public String inspect(String sql) {
+        Counter.builder("book.sql.statements")
+                .description("SQL statements prepared by hibernate")
+                .tag("type", type(sql))
+                .tag("endpoint", EndpointContext.current())
+                .register(meterRegistry)
+                .increment();
+        return sql;
+    }
+
+    private String type(String sql) {
+        String trimmed = sql.stripLeading();
+        if (trimmed.regionMatches(true, 0, "select", 0, 6)) {
+            return "select";
+        } else if (trimmed.regionMatches(true, 0, "insert", 0, 6)) {
+            return "insert";
+        } else if (trimmed.regionMatches(true, 0, "update", 0, 6)) {
+            return "update";
+        } else if (trimmed.regionMatches(true, 0, "delete", 0, 6)) {
+            return "delete";
+        }
+        return "other";
+    }
+}
@@ -0,0 +1,57 @@
+package com.meta.junitproject.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.meta.junitproject.admission.ClientKeys;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+
+/**
+ * read-your-writes: 쓰기(POST/PUT/DELETE)에 성공한 클라이언트는 window 동안 조회도 primary에서 한다.
+ * (replica에 아직 반영되지 않은 자기 변경이 사라져 보이지 않도록, window는 replicas.max-lag 이상으로 둔다.)
+ * 클라이언트 구분은 ClientKeys (X-Client-Id 또는 IP)
+ */
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    private final String clientHeader;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesInterceptor(String clientHeader, Duration window, long maxClients) {
+        this.clientHeader = clientHeader;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && recentWriters.getIfPresent(ClientKeys.of(request, clientHeader)) != null) {
+            RoutingContext.pinToPrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RoutingContext.clear(); // 요청 스레드 반납
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RoutingContext.clear();
+        if (handler instanceof HandlerMethod && isWrite(request) && ex == null && response.getStatus() < 400) {
+            recentWriters.put(ClientKeys.of(request, clientHeader), Boolean.TRUE);
+        }
+    }
+
+    private boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method) && !HttpMethod.OPTIONS.matches(method);
+    }
+}
@@ -0,0 +1,41 @@
+package com.meta.junitproject.routing;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 커넥션을 빌릴 때마다 ReplicaSet.route()로 primary / replica를 고른다.
+ * readOnly 여부는 트랜잭션이 시작된 뒤에야 알 수 있으므로 LazyConnectionDataSourceProxy로 감싸서 쓴다.
+ * (실제 커넥션은 첫 SQL 실행 시점에 빌린다.)
+ * replica 커넥션을 못 얻으면 primary로 다시 빌린다.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final ReplicaSet replicaSet;
+
+    public ReplicaRoutingDataSource(ReplicaSet replicaSet) {
+        this.replicaSet = replicaSet;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = replicaSet.route();
+        if (target == replicaSet.primary()) {
+            return target.getConnection();
+        }
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            return replicaSet.fallback(target).getConnection();
+        }
+    }
+
+    // 계정을 지정한 요청은 primary로
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return replicaSet.primary().getConnection(username, password);
+    }
+}
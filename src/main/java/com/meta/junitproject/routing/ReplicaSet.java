@@ -0,0 +1,190 @@
+package com.meta.junitproject.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * primary 1개 + replica 여러 개의 커넥션 풀과 라우팅 규칙 (ReplicaRoutingDataSource가 커넥션마다 route()로 고른다.)
+ * 1. 쓰기 트랜잭션(readOnly가 아님), 트랜잭션 밖 -> primary
+ * 2. RoutingContext가 primary를 요구 (최근에 쓴 클라이언트, 캐시에 넣을 조회) -> primary
+ * 3. readOnly 트랜잭션 -> 지연이 max-lag 이하인 replica를 round-robin, 없으면 primary
+ * replica 지연은 lag-check-interval마다 lag-query로 확인한다. (확인 전, 실패, 결과 없음 = 사용 안 함)
+ *
+ * 계측: book.db.route{target, reason}, book.db.replica.lag{replica} (초, 모르면 NaN), book.db.replica.healthy{replica} (1 사용, 0 제외),
+ * hikaricp.connections.*{pool}
+ */
+public class ReplicaSet implements MeterBinder, DisposableBean {
+
+    private static final String MARIADB_LAG_COLUMN = "Seconds_Behind_Master";
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagSeconds;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile Counter writeCounter;
+    private volatile Counter pinnedCounter;
+    private volatile Counter noReplicaCounter;
+    private volatile Counter fallbackCounter;
+    private volatile Counter replicaCounter;
+
+    public ReplicaSet(HikariDataSource primary, List<HikariDataSource> replicas, long maxLagSeconds, String lagQuery) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas.size());
+        for (HikariDataSource replica : replicas) {
+            this.replicas.add(new Replica(replica));
+        }
+        this.maxLagSeconds = maxLagSeconds;
+        this.lagQuery = lagQuery;
+    }
+
+    public DataSource primary() {
+        return primary;
+    }
+
+    DataSource route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            increment(writeCounter);
+            return primary;
+        }
+        if (RoutingContext.isPrimaryRequired()) {
+            increment(pinnedCounter);
+            return primary;
+        }
+
+        int size = replicas.size();
+        int start = next.getAndIncrement() & Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                increment(replicaCounter);
+                return replica.dataSource;
+            }
+        }
+        increment(noReplicaCounter);
+        return primary;
+    }
+
+    // replica 커넥션을 못 얻은 경우: 다음 지연 확인 때까지 제외하고 primary로 보낸다.
+    DataSource fallback(DataSource failed) {
+        for (Replica replica : replicas) {
+            if (replica.dataSource == failed) {
+                replica.healthy = false;
+            }
+        }
+        increment(fallbackCounter);
+        return primary;
+    }
+
+    @Scheduled(fixedDelayString = "${book.datasource.replicas.lag-check-interval:1000}")
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            Long lag = queryLag(replica.dataSource);
+            replica.lagSeconds = lag == null ? Double.NaN : lag;
+            replica.healthy = lag != null && lag <= maxLagSeconds;
+        }
+    }
+
+    // MariaDB의 SHOW SLAVE STATUS면 Seconds_Behind_Master, 아니면 첫 번째 컬럼 (null = 복제 중단)
+    private Long queryLag(HikariDataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            if (!rs.next()) {
+                return null;
+            }
+            long lag = rs.getLong(lagColumn(rs.getMetaData()));
+            return rs.wasNull() ? null : lag;
+        } catch (SQLException e) {
+            return null; // 접속 불가 -> 사용 안 함
+        }
+    }
+
+    private int lagColumn(ResultSetMetaData metaData) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (MARIADB_LAG_COLUMN.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                return i;
+            }
+        }
+        return 1;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        writeCounter = routeCounter(registry, "primary", "write");
+        pinnedCounter = routeCounter(registry, "primary", "pinned");
+        noReplicaCounter = routeCounter(registry, "primary", "no_replica");
+        fallbackCounter = routeCounter(registry, "primary", "fallback");
+        replicaCounter = routeCounter(registry, "replica", "read");
+
+        // 풀이 라우팅 DataSource 안에 있어서 spring boot가 찾지 못하므로 직접 등록한다.
+        trackPool(primary, registry);
+        for (Replica replica : replicas) {
+            trackPool(replica.dataSource, registry);
+            Gauge.builder("book.db.replica.lag", replica, r -> r.lagSeconds)
+                    .description("replication lag in seconds reported by the lag query")
+                    .tag("replica", replica.dataSource.getPoolName())
+                    .register(registry);
+            Gauge.builder("book.db.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("1 if the replica receives reads, 0 if it is lagging or unreachable")
+                    .tag("replica", replica.dataSource.getPoolName())
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+        primary.close();
+    }
+
+    private static void trackPool(HikariDataSource pool, MeterRegistry registry) {
+        if (pool.getMetricsTrackerFactory() == null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+    }
+
+    private static Counter routeCounter(MeterRegistry registry, String target, String reason) {
+        return Counter.builder("book.db.route")
+                .description("connections routed to primary or replica")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) { // MeterRegistry에 묶이기 전(기동 중)
+            counter.increment();
+        }
+    }
+
+    private static class Replica {
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+        private volatile double lagSeconds = Double.NaN;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.meta.junitproject.routing;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드의 조회를 replica가 아니라 primary로 보내야 하는지
+ * - ReadYourWritesInterceptor: 최근에 쓰기를 한 클라이언트의 요청 전체
+ * - onPrimary(...): 결과를 오래 들고 있는 조회 (캐시에 넣을 값 등, 지연된 replica 값이 남지 않도록)
+ * 라우팅을 끄면(book.datasource.routing.enabled=false) 아무 영향 없다.
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private RoutingContext() {
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY.get() != null;
+    }
+
+    public static <T> T onPrimary(Supplier<T> reader) {
+        if (isPrimaryRequired()) {
+            return reader.get();
+        }
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return reader.get();
+        } finally {
+            PRIMARY.remove();
+        }
+    }
+
+    static void pinToPrimary() {
+        PRIMARY.set(Boolean.TRUE);
+    }
+
+    static void clear() {
+        PRIMARY.remove();
+    }
+}
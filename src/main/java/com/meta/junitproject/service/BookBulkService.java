@@ -0,0 +1,128 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.domain.Book;
+import com.meta.junitproject.domain.BookRepository;
+import com.meta.junitproject.domain.MailOutbox;
+import com.meta.junitproject.domain.MailOutboxRepository;
+import com.meta.junitproject.web.dto.request.BookSaveReqDto;
+import com.meta.junitproject.web.dto.response.BookBulkItemRespDto;
+import com.meta.junitproject.web.dto.response.BookBulkRespDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 대량 등록 (import job 용)
+ * 1. 건별로 bean validation -> 실패한 건은 저장하지 않고 에러만 담는다.
+ * 2. 통과한 건들은 chunk-size 단위로 트랜잭션 1개 + flush 1회 -> hibernate.jdbc.batch_size 만큼 insert가 묶여서 나간다.
+ * 3. 메일은 chunk 트랜잭션 안에서 outbox에 건별로 기록만 한다.
+ * 4. chunk 하나가 실패해도 이전 chunk는 이미 커밋되어 있고, 실패한 chunk의 건들만 실패로 응답한다.
+ */
+@RequiredArgsConstructor
+@Service
+public class BookBulkService {
+
+    private final BookRepository bookRepository;
+    private final MailOutboxRepository mailOutboxRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager em;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${book.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    public BookBulkRespDto register_books(List<BookSaveReqDto> dtos) {
+        BookBulkItemRespDto[] results = new BookBulkItemRespDto[dtos.size()];
+
+        List<Integer> chunk = new ArrayList<>(chunkSize);
+        for (int i = 0; i < dtos.size(); i++) {
+            Map<String, String> errors = validate(dtos.get(i));
+            if (!errors.isEmpty()) {
+                results[i] = BookBulkItemRespDto.builder().index(i).success(false).errors(errors).build();
+                continue;
+            }
+            chunk.add(i);
+            if (chunk.size() == chunkSize) {
+                save_chunk(dtos, chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            save_chunk(dtos, chunk, results);
+        }
+
+        return BookBulkRespDto.builder().items(Arrays.asList(results)).build();
+    }
+
+    private void save_chunk(List<BookSaveReqDto> dtos, List<Integer> indexes, BookBulkItemRespDto[] results) {
+        try {
+            List<BookSaveReqDto> chunk = new ArrayList<>(indexes.size());
+            for (Integer index : indexes) {
+                chunk.add(dtos.get(index));
+            }
+            List<BookRespDto> saved = save_batch(chunk);
+            for (int i = 0; i < indexes.size(); i++) {
+                int index = indexes.get(i);
+                results[index] = BookBulkItemRespDto.builder().index(index).success(true).book(saved.get(i)).build();
+            }
+        } catch (RuntimeException e) {
+            Map<String, String> errors = Collections.singletonMap("global", e.getMessage());
+            for (Integer index : indexes) {
+                results[index] = BookBulkItemRespDto.builder().index(index).success(false).errors(errors).build();
+            }
+        }
+    }
+
+    // 검증이 끝난 dto들을 트랜잭션 1개 + flush 1회로 저장한다. (하나라도 실패하면 전부 롤백)
+    // 대량 등록의 chunk, BookRegisterBuffer의 micro-batch가 같이 쓴다.
+    public List<BookRespDto> save_batch(List<BookSaveReqDto> dtos) {
+        return transactionTemplate.execute(status -> {
+            List<Book> books = new ArrayList<>(dtos.size());
+            for (BookSaveReqDto dto : dtos) {
+                books.add(dto.toEntity());
+            }
+            List<BookRespDto> bookRespDtos = new ArrayList<>(books.size());
+            List<MailOutbox> mailOutboxes = new ArrayList<>(books.size());
+            for (Book bookPS : bookRepository.saveAll(books)) {
+                BookRespDto bookRespDto = bookPS.toDto();
+                bookRespDtos.add(bookRespDto);
+                mailOutboxes.add(MailOutbox.builder().bookId(bookPS.getId()).build());
+                eventPublisher.publishEvent(BookChangedEvent.created(bookRespDto));
+            }
+            mailOutboxRepository.saveAll(mailOutboxes); // 메일은 outbox에 기록만 (MailDispatcher가 발송)
+            bookRepository.flush(); // batch insert
+            em.clear(); // chunk가 끝나면 영속성 컨텍스트를 비워 메모리가 쌓이지 않게 한다.
+            return bookRespDtos;
+        });
+    }
+
+    private Map<String, String> validate(BookSaveReqDto dto) {
+        if (dto == null) {
+            return Collections.singletonMap("global", "must not be null");
+        }
+        Set<ConstraintViolation<BookSaveReqDto>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> errorMap = new HashMap<>();
+        for (ConstraintViolation<BookSaveReqDto> violation : violations) {
+            errorMap.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errorMap;
+    }
+}
@@ -0,0 +1,268 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.domain.BookChange;
+import com.meta.junitproject.domain.BookChangeCounter;
+import com.meta.junitproject.domain.BookChangeCounterRepository;
+import com.meta.junitproject.domain.BookChangeRepository;
+import com.meta.junitproject.domain.BookChangeType;
+import com.meta.junitproject.routing.RoutingContext;
+import com.meta.junitproject.web.dto.response.BookChangeListRespDto;
+import com.meta.junitproject.web.dto.response.BookChangeRespDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import com.meta.junitproject.web.handler.ex.BookChangesExpiredException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 책 변경 내역 (change feed)
+ * 1. 기록: BookChangedEvent를 발행한 트랜잭션 안에서 BookChange를 insert한다. (책 변경과 같이 커밋/롤백, 트랜잭션 밖이면 실패)
+ *    번호는 BookChangeCounter 행을 잠그고 받는다. 잠금은 커밋까지 유지되므로 번호 순서가 곧 커밋 순서이고,
+ *    롤백되면 카운터도 되돌아가서 빈 번호가 없다. (시계, 트랜잭션 길이와 상관없이 커밋된 내역을 건너뛰지 않는다.)
+ *    트랜잭션 안에서는 모아두기만 하고 커밋 직전에 번호 구간을 한 번에 받아 insert한다. (ChangeBuffer)
+ *    -> 건수와 상관없이 트랜잭션당 update 1번 + select 1번, insert는 hibernate.jdbc.batch_size로 묶인다.
+ *       잠금은 커밋 직전부터만 잡으므로 카운터를 기다리는 시간도 짧다.
+ * 2. 조회: since 이후 내역을 seq 순서로 최대 limit건 (보이는 번호 앞은 모두 커밋되어 있다.)
+ * 3. long-poll: 새 내역이 없으면 waiter로 등록하고, 이 인스턴스의 커밋 직후 또는 poll-interval마다
+ *    feed 스레드 1개가 since별로 한 번씩 조회해서 응답한다. (다른 인스턴스의 변경은 poll-interval 이내에 반영)
+ *
+ * 계측: book.changes.waiters (long-poll 대기 중인 요청 수)
+ */
+@Component
+public class BookChangeFeed {
+
+    private final BookChangeRepository bookChangeRepository;
+    private final BookChangeCounterRepository bookChangeCounterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager em;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${book.changes.poll-interval:1s}")
+    private Duration pollInterval;
+
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waiterCount = new AtomicInteger(); // ConcurrentLinkedQueue.size()는 O(n)이라 따로 센다.
+    private volatile boolean running;
+    private Thread feeder;
+
+    public BookChangeFeed(BookChangeRepository bookChangeRepository, BookChangeCounterRepository bookChangeCounterRepository,
+                          TransactionTemplate transactionTemplate, EntityManager em, MeterRegistry meterRegistry) {
+        this.bookChangeRepository = bookChangeRepository;
+        this.bookChangeCounterRepository = bookChangeCounterRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.em = em;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        initCounter();
+        Gauge.builder("book.changes.waiters", waiterCount, AtomicInteger::get)
+                .description("long-poll requests waiting for new book changes")
+                .register(meterRegistry);
+
+        running = true;
+        feeder = new Thread(this::runFeeder, "book-change-feed");
+        feeder.setDaemon(true);
+        feeder.start();
+    }
+
+    // 카운터 행이 없으면(빈 DB) 기존 내역의 다음 번호부터 시작하도록 만든다. (여러 인스턴스가 동시에 만들면 하나만 성공)
+    private void initCounter() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!bookChangeCounterRepository.existsById(BookChangeCounter.ID)) {
+                    bookChangeCounterRepository.save(new BookChangeCounter(BookChangeCounter.ID, bookChangeRepository.findMaxSeq()));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // 다른 인스턴스가 먼저 만들었다.
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(feeder);
+        feeder.join(pollInterval.toMillis());
+    }
+
+    // 1. 기록 (BookService, BookBulkService의 트랜잭션에 참여), 커밋 직전에 ChangeBuffer가 insert한다.
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(BookChangedEvent event) {
+        ChangeBuffer buffer = (ChangeBuffer) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            buffer = new ChangeBuffer();
+            TransactionSynchronizationManager.bindResource(this, buffer);
+            TransactionSynchronizationManager.registerSynchronization(buffer);
+        }
+        buffer.events.add(event);
+    }
+
+    // 카운터 행을 잠그고(이 트랜잭션이 끝날 때까지) 번호 구간을 받아 한꺼번에 insert한다.
+    private void write(List<BookChangedEvent> events) {
+        em.flush(); // 책 행 잠금을 먼저 잡는다. (카운터를 잡은 채 다른 트랜잭션의 책 행을 기다리면 deadlock)
+        if (bookChangeCounterRepository.increase(BookChangeCounter.ID, events.size()) == 0) {
+            throw new IllegalStateException("BookChangeCounter 행이 없습니다. (README의 BookChange DDL 참고)");
+        }
+        long seq = bookChangeCounterRepository.findLastSeq(BookChangeCounter.ID) - events.size();
+        for (BookChangedEvent event : events) {
+            BookRespDto book = event.getBook();
+            em.persist(BookChange.builder() // seq를 직접 넣으므로 save(merge -> select)가 아니라 persist
+                    .seq(++seq)
+                    .type(BookChangeType.valueOf(event.getType().name()))
+                    .bookId(event.getId())
+                    .version(book == null ? null : book.getVersion())
+                    .title(book == null ? null : book.getTitle())
+                    .author(book == null ? null : book.getAuthor())
+                    .build());
+        }
+    }
+
+    // 커밋되면 기다리는 요청을 바로 확인한다.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookChanged(BookChangedEvent event) {
+        if (waiterCount.get() > 0) {
+            LockSupport.unpark(feeder);
+        }
+    }
+
+    // 2. 조회 (since 이후가 이미 지워졌으면 410)
+    // 방금 커밋된 내역도 보이도록 replica가 아니라 primary에서 읽는다.
+    public BookChangeListRespDto read(long since, int limit) {
+        List<BookChange> rows = RoutingContext.onPrimary(() -> bookChangeRepository.findAfter(since, PageRequest.of(0, limit)));
+        if (since > 0 && !rows.isEmpty() && rows.get(0).getSeq() > since + 1
+                && !RoutingContext.onPrimary(() -> bookChangeRepository.existsBySeqLessThanEqual(since))) {
+            throw new BookChangesExpiredException("since 이후 변경 내역이 보관 기간(retention)이 지나 삭제되었습니다. 전체 목록을 다시 받아주세요.");
+        }
+
+        List<BookChangeRespDto> changes = new ArrayList<>(rows.size());
+        for (BookChange row : rows) {
+            changes.add(row.toDto());
+        }
+        long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+        return BookChangeListRespDto.builder().changes(changes).next(next).build();
+    }
+
+    // 3. long-poll 등록, 새 내역이 생기면 onChanges (result가 끝났으면(timeout 등) 버린다)
+    public void subscribe(long since, int limit, DeferredResult<?> result, Consumer<BookChangeListRespDto> onChanges) {
+        waiters.offer(new Waiter(since, limit, result, onChanges));
+        waiterCount.incrementAndGet();
+        LockSupport.unpark(feeder); // read 이후 등록 전에 커밋된 내역을 놓치지 않도록 한 번 확인
+    }
+
+    private void runFeeder() {
+        while (running) {
+            LockSupport.parkNanos(this, pollInterval.toNanos());
+            if (waiterCount.get() > 0) {
+                try {
+                    drain();
+                } catch (RuntimeException e) {
+                    // 다음 주기에 다시 확인 (스레드가 죽지 않도록)
+                }
+            }
+        }
+    }
+
+    private void drain() {
+        Map<Long, List<Waiter>> bySince = new TreeMap<>();
+        for (Iterator<Waiter> it = waiters.iterator(); it.hasNext(); ) {
+            Waiter waiter = it.next();
+            if (waiter.result.isSetOrExpired()) {
+                it.remove();
+                waiterCount.decrementAndGet();
+                continue;
+            }
+            bySince.computeIfAbsent(waiter.since, key -> new ArrayList<>()).add(waiter);
+        }
+
+        for (Map.Entry<Long, List<Waiter>> entry : bySince.entrySet()) {
+            int limit = entry.getValue().stream().mapToInt(waiter -> waiter.limit).max().orElse(1);
+            BookChangeListRespDto changes;
+            try {
+                changes = read(entry.getKey(), limit);
+            } catch (RuntimeException e) {
+                entry.getValue().forEach(waiter -> complete(waiter, () -> waiter.result.setErrorResult(e)));
+                continue;
+            }
+            if (changes.getItems().isEmpty()) {
+                continue;
+            }
+            for (Waiter waiter : entry.getValue()) {
+                complete(waiter, () -> waiter.onChanges.accept(limit(changes, waiter.limit)));
+            }
+        }
+    }
+
+    private void complete(Waiter waiter, Runnable completion) {
+        if (waiters.remove(waiter)) {
+            waiterCount.decrementAndGet();
+            completion.run();
+        }
+    }
+
+    private BookChangeListRespDto limit(BookChangeListRespDto changes, int limit) {
+        List<BookChangeRespDto> items = changes.getItems();
+        if (items.size() <= limit) {
+            return changes;
+        }
+        List<BookChangeRespDto> head = items.subList(0, limit);
+        return BookChangeListRespDto.builder().changes(head).next(head.get(limit - 1).getSeq()).build();
+    }
+
+    // 트랜잭션 하나에서 발행된 변경들 (커밋 직전에 write, 롤백이면 버린다)
+    private class ChangeBuffer implements TransactionSynchronization {
+        private final List<BookChangedEvent> events = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            write(events);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(BookChangeFeed.this);
+        }
+    }
+
+    private static class Waiter {
+        private final long since;
+        private final int limit;
+        private final DeferredResult<?> result;
+        private final Consumer<BookChangeListRespDto> onChanges;
+
+        private Waiter(long since, int limit, DeferredResult<?> result, Consumer<BookChangeListRespDto> onChanges) {
+            this.since = since;
+            this.limit = limit;
+            this.result = result;
+            this.onChanges = onChanges;
+        }
+    }
+}
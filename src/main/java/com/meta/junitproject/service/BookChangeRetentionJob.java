@@ -0,0 +1,56 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.domain.BookChangeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * retention이 지난 책 변경 내역(BookChange)을 지운다. (BookCompactionJob과 같은 방식)
+ * 1. 오래된 seq를 chunk-size만큼 읽고 그 seq들만 delete -> chunk마다 짧은 트랜잭션 1개
+ * 2. 한 번 실행에 max-chunks-per-run까지만 처리하고 다음 실행으로 넘긴다.
+ * 소비자가 retention보다 오래 멈춰 있었다면 다음 조회는 410 (BookChangeFeed)
+ */
+@ConditionalOnProperty(name = "book.changes.purge.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Component
+public class BookChangeRetentionJob {
+
+    private final BookChangeRepository bookChangeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${book.changes.retention:7d}")
+    private Duration retention;
+
+    @Value("${book.changes.purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${book.changes.purge.max-chunks-per-run:20}")
+    private int maxChunksPerRun;
+
+    @Scheduled(fixedDelayString = "${book.changes.purge.interval:60000}")
+    public void purge() {
+        for (int i = 0; i < maxChunksPerRun; i++) {
+            if (purge_chunk() < chunkSize) {
+                return;
+            }
+        }
+    }
+
+    // 지운 건수 반환
+    public int purge_chunk() {
+        Instant before = Instant.now().minus(retention);
+        Integer purged = transactionTemplate.execute(status -> {
+            List<Long> seqs = bookChangeRepository.findExpiredSeqs(before, chunkSize);
+            return seqs.isEmpty() ? 0 : bookChangeRepository.deleteBySeqs(seqs);
+        });
+        return purged == null ? 0 : purged;
+    }
+}
@@ -0,0 +1,39 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import lombok.Getter;
+
+/**
+ * 책 등록/수정/삭제 이벤트
+ * BookService가 트랜잭션 안에서 발행하고, 검색 인덱스처럼 메모리에 데이터를 들고 있는 쪽은
+ * @TransactionalEventListener(AFTER_COMMIT)으로 받아 커밋된 변경만 반영한다.
+ */
+@Getter
+public class BookChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final Long id;
+    private final BookRespDto book; // DELETED면 null
+
+    private BookChangedEvent(Type type, Long id, BookRespDto book) {
+        this.type = type;
+        this.id = id;
+        this.book = book;
+    }
+
+    public static BookChangedEvent created(BookRespDto book) {
+        return new BookChangedEvent(Type.CREATED, book.getId(), book);
+    }
+
+    public static BookChangedEvent updated(BookRespDto book) {
+        return new BookChangedEvent(Type.UPDATED, book.getId(), book);
+    }
+
+    public static BookChangedEvent deleted(Long id) {
+        return new BookChangedEvent(Type.DELETED, id, null);
+    }
+}
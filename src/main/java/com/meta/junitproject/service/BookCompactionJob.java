@@ -0,0 +1,56 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.domain.BookRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * soft delete된 책(tombstone)을 백그라운드에서 실제로 지운다.
+ * 1. retention이 지난 tombstone id를 chunk-size만큼 읽고 그 id들만 delete -> chunk마다 짧은 트랜잭션 1개 (락을 오래 잡지 않음)
+ * 2. 한 번 실행에 max-chunks-per-run까지만 처리하고 다음 실행으로 넘긴다.
+ * book.delete.soft=false여도 켜두면 남아 있는 tombstone을 정리한다.
+ */
+@ConditionalOnProperty(name = "book.delete.compaction.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Component
+public class BookCompactionJob {
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${book.delete.compaction.retention:1h}")
+    private Duration retention;
+
+    @Value("${book.delete.compaction.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${book.delete.compaction.max-chunks-per-run:20}")
+    private int maxChunksPerRun;
+
+    @Scheduled(fixedDelayString = "${book.delete.compaction.interval:60000}")
+    public void compact() {
+        for (int i = 0; i < maxChunksPerRun; i++) {
+            if (compact_chunk() < chunkSize) {
+                return;
+            }
+        }
+    }
+
+    // 지운 건수 반환
+    public int compact_chunk() {
+        Instant before = Instant.now().minus(retention);
+        Integer purged = transactionTemplate.execute(status -> {
+            List<Long> ids = bookRepository.findTombstoneIds(before, chunkSize);
+            return ids.isEmpty() ? 0 : bookRepository.purgeTombstones(ids);
+        });
+        return purged == null ? 0 : purged;
+    }
+}
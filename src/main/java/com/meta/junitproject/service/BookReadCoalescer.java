@@ -0,0 +1,76 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.routing.RoutingContext;
+import com.meta.junitproject.web.dto.response.BookListRespDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import com.meta.junitproject.web.handler.ex.BookNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * 인기 있는 책 한 건 / 전체 목록을 동시에 여러 요청이 조회하면 DB 조회 1번으로 합친다. (SingleFlight)
+ * 트랜잭션 밖(컨트롤러와 BookService 사이)에서 합치므로 follower는 커넥션을 잡지 않고 기다린다.
+ * BookService의 캐시(@Cacheable)가 비어 있을 때 몰리는 요청(cache stampede)도 같이 막는다.
+ * book.read.coalescing.enabled=false면 BookService를 그대로 호출한다.
+ * primary에서 읽어야 하는 요청(read-your-writes)은 replica에서 읽은 다른 요청의 결과를 받으면 안 되므로 합치지 않는다.
+ * 메모리 스냅샷(BookSnapshotStore)으로 응답 중이면 트랜잭션도 열지 않고 스냅샷에서 바로 돌려준다.
+ */
+@Component
+public class BookReadCoalescer {
+
+    private static final String CONTENTS_KEY = "contents";
+
+    private final BookService bookService;
+    private final BookSnapshotStore bookSnapshotStore;
+    private final boolean enabled;
+    private final SingleFlight<Long, BookRespDto> oneBook;
+    private final SingleFlight<String, BookListRespDto> contents;
+
+    public BookReadCoalescer(BookService bookService, BookSnapshotStore bookSnapshotStore, MeterRegistry meterRegistry,
+                             @Value("${book.read.coalescing.enabled:true}") boolean enabled,
+                             @Value("${book.read.coalescing.timeout:2s}") Duration timeout) {
+        this.bookService = bookService;
+        this.bookSnapshotStore = bookSnapshotStore;
+        this.enabled = enabled;
+        this.oneBook = new SingleFlight<>("look_one_book", timeout, meterRegistry);
+        this.contents = new SingleFlight<>("look_book_contents", timeout, meterRegistry);
+    }
+
+    public BookRespDto look_one_book(Long id) {
+        BookSnapshot snapshot = bookSnapshotStore.serving();
+        if (snapshot != null) {
+            BookRespDto bookRespDto = snapshot.find(id);
+            if (bookRespDto == null) {
+                throw new BookNotFoundException();
+            }
+            return bookRespDto;
+        }
+        if (!enabled || RoutingContext.isPrimaryRequired()) {
+            return bookService.look_one_book(id);
+        }
+        return oneBook.execute(id, () -> bookService.look_one_book(id));
+    }
+
+    public BookListRespDto look_book_contents() {
+        BookSnapshot snapshot = bookSnapshotStore.serving();
+        if (snapshot != null) {
+            return snapshot.getContents();
+        }
+        if (!enabled || RoutingContext.isPrimaryRequired()) {
+            return bookService.look_book_contents();
+        }
+        return contents.execute(CONTENTS_KEY, bookService::look_book_contents);
+    }
+
+    // 커밋된 변경 이후에 온 요청은 새로 조회한다. (read-your-writes)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        oneBook.forget(event.getId());
+        contents.forget(CONTENTS_KEY);
+    }
+}
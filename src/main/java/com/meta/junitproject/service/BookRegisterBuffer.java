@@ -0,0 +1,325 @@
+package com.meta.junitproject.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.meta.junitproject.web.dto.request.BookSaveReqDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import com.meta.junitproject.web.handler.ex.BookUnavailableException;
+import com.meta.junitproject.web.handler.ex.BookUnprocessableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 책 등록 쓰기 합치기 (group commit), book.register.coalescing.enabled=true일 때만 동작
+ * 1. 요청 스레드는 dto를 큐(lock-free, capacity로 제한)에 넣고 자기 건이 커밋될 때까지 기다린다.
+ * 2. flusher 스레드 1개가 batch-size건이 모이거나 첫 건 이후 linger가 지나면 한 트랜잭션으로 저장한다. (BookBulkService.save_batch)
+ * 3. batch가 실패하면 한 건 때문에 나머지가 실패하지 않도록 반씩 나눠 다시 저장한다.
+ *    (실패한 건만 남을 때까지, 한 flush에서 fallback-transactions번까지만. 넘으면 나머지는 저장하지 않고 503)
+ * 4. 기다리다 timeout이 나면: 아직 batch에 안 들어간 건은 빼고 503 (저장 안 됨),
+ *    이미 batch에 들어간 건은 커밋될 수도 있으므로 null (컨트롤러가 202, 결과 모름)
+ * 5. Idempotency-Key를 같이 보내면 같은 키의 재시도는 새로 저장하지 않고 처음 요청의 결과를 기다린다. (idempotency-ttl 동안)
+ *    키는 클라이언트(ClientKeys)별로 따로 두므로 다른 클라이언트가 같은 키를 보내도 서로의 결과를 받지 않는다.
+ *    같은 키로 다른 내용(title, author)을 보내면 422, 처음 요청이 저장되지 않고 끝났으면(503, 실패) 다시 큐에 넣는다.
+ * 꺼져 있으면 register는 BookService.register_book을 그대로 호출한다. (기다리는 timeout이 없으므로 키는 쓰지 않음)
+ *
+ * 계측: book.register.batch.size(한 번에 커밋한 건수), book.register.queue.depth(대기 건수), book.register.rejected(큐가 꽉 참)
+ */
+@Component
+public class BookRegisterBuffer {
+
+    private final BookService bookService;
+    private final BookBulkService bookBulkService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${book.register.coalescing.enabled:false}")
+    private boolean enabled;
+
+    @Value("${book.register.coalescing.batch-size:200}")
+    private int batchSize;
+
+    @Value("${book.register.coalescing.linger:5ms}")
+    private Duration linger;
+
+    @Value("${book.register.coalescing.capacity:10000}")
+    private int capacity;
+
+    @Value("${book.register.coalescing.timeout:5s}")
+    private Duration timeout;
+
+    @Value("${book.register.coalescing.fallback-transactions:32}")
+    private int fallbackTransactions;
+
+    @Value("${book.register.coalescing.idempotency-ttl:10m}")
+    private Duration idempotencyTtl;
+
+    @Value("${book.register.coalescing.idempotency-max-keys:100000}")
+    private long idempotencyMaxKeys;
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger(); // ConcurrentLinkedQueue.size()는 O(n)이라 따로 센다.
+    private volatile boolean running;
+    private Thread flusher;
+    private Cache<String, Pending> idempotencyKeys;
+    private DistributionSummary batchSizeSummary;
+    private Counter rejectedCounter;
+
+    public BookRegisterBuffer(BookService bookService, BookBulkService bookBulkService, MeterRegistry meterRegistry) {
+        this.bookService = bookService;
+        this.bookBulkService = bookBulkService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        batchSizeSummary = DistributionSummary.builder("book.register.batch.size")
+                .description("books committed per group-commit transaction")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("book.register.rejected")
+                .description("registrations rejected because the buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("book.register.queue.depth", size, AtomicInteger::get)
+                .description("registrations waiting for the next group commit")
+                .register(meterRegistry);
+
+        idempotencyKeys = Caffeine.newBuilder()
+                .maximumSize(idempotencyMaxKeys)
+                .expireAfterWrite(idempotencyTtl)
+                .build();
+
+        running = true;
+        flusher = new Thread(this::runFlusher, "book-register-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // 종료 시 남은 건은 마저 저장한다.
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(timeout.toMillis());
+    }
+
+    public BookRespDto register(BookSaveReqDto dto) {
+        return register(dto, null, null);
+    }
+
+    // 커밋된 결과를 돌려준다. (꺼져 있으면 바로 register_book)
+    // null: batch에 들어간 뒤 timeout이라 커밋 여부를 모름 (같은 client, idempotencyKey로 다시 요청하면 결과를 받는다)
+    public BookRespDto register(BookSaveReqDto dto, String client, String idempotencyKey) {
+        if (!enabled) {
+            return bookService.register_book(dto);
+        }
+
+        Pending pending = idempotencyKey == null ? submit(dto) : submitOnce(client + "\n" + idempotencyKey, dto); // header 값에는 줄바꿈이 없다.
+        try {
+            return pending.future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (pending.cancel()) { // 아직 batch에 안 들어갔으면 저장하지 않는다.
+                throw new BookUnavailableException("책 등록 대기 시간이 초과되었습니다.");
+            }
+            return null; // cancel(false)로는 이미 커밋 중인 건을 되돌릴 수 없다.
+        } catch (CancellationException e) {
+            throw new BookUnavailableException("책 등록 대기 시간이 초과되었습니다."); // 같은 키의 다른 요청이 timeout으로 뺌
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pending.cancel()) {
+                throw new BookUnavailableException("책 등록이 중단되었습니다.");
+            }
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    // 같은 키로 진행 중이거나 저장된 등록이 있으면 그것을, 없거나 저장되지 않고 끝났으면 새로 큐에 넣는다.
+    // 같은 키인데 내용이 다르면 처음 요청의 결과를 돌려주면 안 되므로 422 (compute 안에서 던지면 기존 값은 그대로 남는다)
+    private Pending submitOnce(String idempotencyKey, BookSaveReqDto dto) {
+        return idempotencyKeys.asMap().compute(idempotencyKey, (key, existing) -> {
+            if (existing == null || existing.future.isCompletedExceptionally()) {
+                return submit(dto);
+            }
+            if (!existing.sameRequest(dto)) {
+                throw new BookUnprocessableException("같은 Idempotency-Key로 다른 내용의 등록을 보낼 수 없습니다.");
+            }
+            return existing;
+        });
+    }
+
+    private Pending submit(BookSaveReqDto dto) {
+        if (!running) {
+            throw new BookUnavailableException("책 등록 버퍼가 동작하지 않습니다.");
+        }
+        int depth = size.incrementAndGet();
+        if (depth > capacity) {
+            size.decrementAndGet();
+            rejectedCounter.increment();
+            throw new BookUnavailableException("등록 요청이 너무 많습니다. 잠시 후 다시 시도해주세요.");
+        }
+
+        Pending pending = new Pending(dto);
+        queue.offer(pending);
+        // flusher가 쉬고 있을 때(첫 건) 깨우고, batch가 꽉 차면 linger를 기다리지 않게 깨운다.
+        if (depth == 1 || depth >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+        return pending;
+    }
+
+    private void runFlusher() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || size.get() > 0) {
+            Pending first = poll();
+            if (first == null) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100)); // 깨우는 것을 놓쳐도 100ms 안에 다시 확인
+                continue;
+            }
+            batch.add(first);
+
+            long deadline = System.nanoTime() + linger.toNanos();
+            while (batch.size() < batchSize) {
+                Pending next = poll();
+                if (next != null) {
+                    batch.add(next);
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !running) {
+                    break;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private Pending poll() {
+        Pending pending = queue.poll();
+        if (pending != null) {
+            size.decrementAndGet();
+        }
+        return pending;
+    }
+
+    private void flush(List<Pending> batch) {
+        List<Pending> live = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            if (pending.claim()) { // 여기서부터는 요청 스레드가 timeout으로 뺄 수 없다.
+                live.add(pending);
+            }
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+
+        save(live);
+        batchSizeSummary.record(live.size());
+    }
+
+    // 실패한 sub-batch는 반으로 나눠 다시 저장한다. (잘못된 건이 k개면 트랜잭션 약 2k*log2(batch)번, 건별 n번이 아님)
+    // 한 flush의 트랜잭션이 fallbackTransactions를 넘으면(DB 장애 등) 나머지는 저장하지 않고 실패시켜 큐가 밀리지 않게 한다.
+    private void save(List<Pending> live) {
+        Deque<List<Pending>> chunks = new ArrayDeque<>();
+        chunks.push(live);
+        int transactions = 0;
+        while (!chunks.isEmpty()) {
+            List<Pending> chunk = chunks.pop();
+            if (transactions++ > fallbackTransactions) {
+                failAll(chunk);
+                while (!chunks.isEmpty()) {
+                    failAll(chunks.pop());
+                }
+                return;
+            }
+
+            List<BookSaveReqDto> dtos = new ArrayList<>(chunk.size());
+            for (Pending pending : chunk) {
+                dtos.add(pending.dto);
+            }
+            try {
+                List<BookRespDto> saved = bookBulkService.save_batch(dtos);
+                for (int i = 0; i < chunk.size(); i++) {
+                    chunk.get(i).future.complete(saved.get(i));
+                }
+            } catch (RuntimeException e) {
+                if (chunk.size() == 1) {
+                    chunk.get(0).future.completeExceptionally(e);
+                    continue;
+                }
+                int half = chunk.size() / 2;
+                chunks.push(chunk.subList(half, chunk.size()));
+                chunks.push(chunk.subList(0, half));
+            }
+        }
+    }
+
+    private void failAll(List<Pending> chunk) {
+        BookUnavailableException e = new BookUnavailableException("책 등록에 실패했습니다. 잠시 후 다시 시도해주세요.");
+        for (Pending pending : chunk) {
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    private static class Pending {
+        private final BookSaveReqDto dto;
+        private final CompletableFuture<BookRespDto> future = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean(); // flusher가 batch에 넣었거나 요청 스레드가 뺐음
+
+        private Pending(BookSaveReqDto dto) {
+            this.dto = dto;
+        }
+
+        // flusher: batch에 넣는다. (이미 빠졌으면 false)
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        // 같은 Idempotency-Key의 재시도인지: 저장할 내용이 같아야 한다.
+        private boolean sameRequest(BookSaveReqDto other) {
+            return Objects.equals(dto.getTitle(), other.getTitle()) && Objects.equals(dto.getAuthor(), other.getAuthor());
+        }
+
+        // 요청 스레드: 아직 batch에 안 들어갔으면 빼고 true (저장되지 않음이 확실)
+        private boolean cancel() {
+            if (!claim()) {
+                return false;
+            }
+            future.cancel(false);
+            return true;
+        }
+    }
+}
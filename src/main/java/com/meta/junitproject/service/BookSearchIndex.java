@@ -0,0 +1,404 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.domain.Book;
+import com.meta.junitproject.domain.BookRepository;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * title, author 검색용 메모리 역색인 (n-gram)
+ *
+ * 1. 정규화: NFKC + 소문자 (전각/반각, 대소문자 무시)
+ * 2. 단어(공백/기호로 분리)마다 글자 1-gram, 2-gram을 색인한다. 한글은 음절 단위라 2-gram이면 형태소 분석 없이도 부분 검색이 된다.
+ * 3. 한글은 초성(ㅈㅂ -> 자바)도 따로 색인한다.
+ * 4. 검색: 질의의 gram들의 posting list 교집합(작은 것부터) -> 후보를 실제 문자열로 검증 (prefix: 단어 시작, contains: 부분 문자열)
+ *
+ * posting list는 내부 문서 번호(int, 증가 순) 배열이라 교집합이 merge 한 번이다.
+ * 수정은 삭제 + 새 문서 번호로 추가, 삭제된 문서가 많아지면 백그라운드 스레드에서 통째로 다시 만들어 바꾼다.
+ * (다시 만드는 동안에도 기존 색인으로 검색하고, 커밋한 요청 스레드는 기다리지 않는다.)
+ * 시작 시 BookRepository에서 전체를 읽어 만들고, 이후에는 커밋된 BookChangedEvent로 갱신한다.
+ */
+@RequiredArgsConstructor
+@Component
+public class BookSearchIndex {
+
+    public enum Mode {
+        PREFIX, CONTAINS
+    }
+
+    private static final char[] CHOSEONG = {
+            'ㄱ', 'ㄲ', 'ㄴ', 'ㄷ', 'ㄸ', 'ㄹ', 'ㅁ', 'ㅂ', 'ㅃ', 'ㅅ', 'ㅆ', 'ㅇ', 'ㅈ', 'ㅉ', 'ㅊ', 'ㅋ', 'ㅌ', 'ㅍ', 'ㅎ'};
+    private static final String CHOSEONG_PREFIX = "#"; // 초성 gram은 일반 gram과 섞이지 않게 구분
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager em;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock(); // rebuild, compaction은 한 번에 하나만
+    private final Executor compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-search-compaction");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private Index index = new Index();
+    private List<BookChangedEvent> pendingDuringRebuild; // rebuild/compaction 중 들어온 변경 (끝나고 다시 적용)
+
+    // 시작 시 전체 색인
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildFromRepository();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildFromRepository() {
+        startPending();
+
+        Index rebuilt = new Index();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Book> booksPS = bookRepository.streamAll()) {
+                    booksPS.forEach(bookPS -> {
+                        rebuilt.add(bookPS.toDto());
+                        em.detach(bookPS);
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            swap(null);
+            throw e;
+        }
+
+        swap(rebuilt);
+    }
+
+    // 삭제된 문서를 뺀 새 색인을 잠금 밖에서 만든다. 만드는 동안 들어온 변경은 pendingDuringRebuild에 모았다가 다시 적용
+    // (같은 변경이 두 번 적용돼도 결과는 같다: 추가는 같은 id를 지우고 넣고, 삭제는 없으면 무시)
+    void compact() {
+        if (!rebuildLock.tryLock()) {
+            compactionScheduled.set(false);
+            return; // rebuild 중이면 그 결과가 이미 compact된 색인
+        }
+        try {
+            startPending();
+            List<BookRespDto> live;
+            lock.readLock().lock();
+            try {
+                live = index.needsCompaction() ? index.liveBooks() : null;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            Index compacted = null;
+            if (live != null) {
+                compacted = new Index();
+                live.forEach(compacted::add);
+            }
+            swap(compacted);
+        } finally {
+            rebuildLock.unlock();
+            compactionScheduled.set(false);
+        }
+    }
+
+    private void startPending() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 새로 만든 색인에 그 사이 변경을 적용하고 바꾼다. (built가 null이면 기존 색인 유지)
+    private void swap(Index built) {
+        lock.writeLock().lock();
+        try {
+            if (built != null) {
+                pendingDuringRebuild.forEach(built::apply);
+                index = built;
+            }
+            pendingDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        boolean compactionNeeded;
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            }
+            index.apply(event);
+            compactionNeeded = pendingDuringRebuild == null && index.needsCompaction();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compactionNeeded && compactionScheduled.compareAndSet(false, true)) {
+            compactor.execute(this::compact);
+        }
+    }
+
+    public List<BookRespDto> search(String query, Mode mode, int limit) {
+        String normalized = normalize(query).trim();
+        if (normalized.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(normalized, mode, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // NFKC는 호환 자모(ㅈ)를 첫소리 자모(U+110C)로 바꾸므로 초성 검색을 위해 다시 호환 자모로 돌려놓는다.
+    static String normalize(String text) {
+        char[] chars = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT).toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= '\u1100' && chars[i] <= '\u1112') {
+                chars[i] = CHOSEONG[chars[i] - '\u1100'];
+            }
+        }
+        return new String(chars);
+    }
+
+    static boolean isHangulSyllable(char c) {
+        return c >= '가' && c <= '힣';
+    }
+
+    static boolean isChoseong(char c) {
+        return c >= 'ㄱ' && c <= 'ㅎ' && Arrays.binarySearch(CHOSEONG, c) >= 0;
+    }
+
+    // 한글 음절은 초성으로, 나머지는 그대로
+    static String toChoseong(String word) {
+        char[] chars = word.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (isHangulSyllable(chars[i])) {
+                chars[i] = CHOSEONG[(chars[i] - '가') / (21 * 28)];
+            }
+        }
+        return new String(chars);
+    }
+
+    static String[] words(String normalized) {
+        return Arrays.stream(normalized.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    // 단어의 1-gram, 2-gram
+    static void grams(String word, String prefix, Set<String> out) {
+        for (int i = 0; i < word.length(); i++) {
+            out.add(prefix + word.charAt(i));
+            if (i + 1 < word.length()) {
+                out.add(prefix + word.substring(i, i + 2));
+            }
+        }
+    }
+
+    // 검색 대상 한 건
+    private static class Doc {
+        private final BookRespDto book;
+        private final String[] titleWords;
+        private final String[] authorWords;
+        private final String title;
+        private final String author;
+        private final String titleChoseong;
+        private final String authorChoseong;
+
+        Doc(BookRespDto book) {
+            this.book = book;
+            this.title = normalize(book.getTitle());
+            this.author = normalize(book.getAuthor());
+            this.titleWords = words(title);
+            this.authorWords = words(author);
+            this.titleChoseong = toChoseong(title);
+            this.authorChoseong = toChoseong(author);
+        }
+
+        Set<String> grams() {
+            Set<String> grams = new LinkedHashSet<>();
+            for (String[] words : new String[][]{titleWords, authorWords}) {
+                for (String word : words) {
+                    BookSearchIndex.grams(word, "", grams); // grams()가 이름을 가리므로 바깥 클래스 메서드로 호출
+                    if (word.chars().anyMatch(c -> isHangulSyllable((char) c))) {
+                        BookSearchIndex.grams(toChoseong(word), CHOSEONG_PREFIX, grams);
+                    }
+                }
+            }
+            return grams;
+        }
+
+        boolean matches(String query, boolean choseong, Mode mode) {
+            if (mode == Mode.CONTAINS) {
+                return choseong
+                        ? titleChoseong.contains(query) || authorChoseong.contains(query)
+                        : title.contains(query) || author.contains(query);
+            }
+            for (String[] words : new String[][]{titleWords, authorWords}) {
+                for (String word : words) {
+                    if ((choseong ? toChoseong(word) : word).startsWith(query)) {
+                        return true;
+                    }
+                }
+            }
+            // 여러 단어 질의("junit 강의")는 문자열 전체 기준 prefix
+            return (choseong ? titleChoseong : title).startsWith(query) || (choseong ? authorChoseong : author).startsWith(query);
+        }
+    }
+
+    // 증가하는 int 배열 (posting list)
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    private static class Index {
+        private final List<Doc> docs = new ArrayList<>(); // 문서 번호 -> Doc (삭제되면 null)
+        private final Map<Long, Integer> docNoById = new HashMap<>();
+        private final Map<String, IntList> postings = new HashMap<>();
+        private int liveDocs;
+
+        void apply(BookChangedEvent event) {
+            if (event.getType() == BookChangedEvent.Type.DELETED) {
+                remove(event.getId());
+            } else {
+                add(event.getBook());
+            }
+        }
+
+        void add(BookRespDto book) {
+            remove(book.getId());
+            Doc doc = new Doc(book);
+            int docNo = docs.size();
+            docs.add(doc);
+            docNoById.put(book.getId(), docNo);
+            for (String gram : doc.grams()) {
+                postings.computeIfAbsent(gram, k -> new IntList()).add(docNo);
+            }
+            liveDocs++;
+        }
+
+        void remove(Long id) {
+            Integer docNo = docNoById.remove(id);
+            if (docNo != null) {
+                docs.set(docNo, null);
+                liveDocs--;
+            }
+        }
+
+        // 삭제된 문서가 절반을 넘으면 다시 만든다.
+        boolean needsCompaction() {
+            return docs.size() > 1024 && liveDocs < docs.size() / 2;
+        }
+
+        List<BookRespDto> liveBooks() {
+            List<BookRespDto> books = new ArrayList<>(liveDocs);
+            for (Doc doc : docs) {
+                if (doc != null) {
+                    books.add(doc.book);
+                }
+            }
+            return books;
+        }
+
+        List<BookRespDto> search(String query, Mode mode, int limit) {
+            boolean choseong = query.chars().allMatch(c -> isChoseong((char) c) || Character.isWhitespace(c));
+
+            Set<String> grams = new LinkedHashSet<>();
+            for (String word : words(query)) {
+                grams(word, choseong ? CHOSEONG_PREFIX : "", grams);
+            }
+            if (grams.isEmpty()) {
+                return List.of();
+            }
+
+            IntList[] lists = new IntList[grams.size()];
+            int n = 0;
+            for (String gram : grams) {
+                IntList list = postings.get(gram);
+                if (list == null) {
+                    return List.of();
+                }
+                lists[n++] = list;
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            List<BookRespDto> result = new ArrayList<>(Math.min(limit, lists[0].size));
+            int[] cursors = new int[lists.length];
+            // 가장 짧은 list를 기준으로 나머지 list에서 같은 문서 번호를 찾는다. (모두 증가 순)
+            outer:
+            for (int i = 0; i < lists[0].size && result.size() < limit; i++) {
+                int docNo = lists[0].values[i];
+                for (int l = 1; l < lists.length; l++) {
+                    IntList list = lists[l];
+                    int c = cursors[l];
+                    while (c < list.size && list.values[c] < docNo) {
+                        c++;
+                    }
+                    cursors[l] = c;
+                    if (c == list.size) {
+                        break outer;
+                    }
+                    if (list.values[c] != docNo) {
+                        continue outer;
+                    }
+                }
+                Doc doc = docs.get(docNo);
+                if (doc != null && doc.matches(query, choseong, mode)) {
+                    result.add(doc.book);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -1,18 +1,37 @@
 package com.meta.junitproject.service;
 
+import com.meta.junitproject.config.CacheConfig;
 import com.meta.junitproject.domain.Book;
 import com.meta.junitproject.domain.BookRepository;
-import com.meta.junitproject.util.MailSender;
+import com.meta.junitproject.domain.BookVersion;
+import com.meta.junitproject.domain.MailOutbox;
+import com.meta.junitproject.domain.MailOutboxRepository;
+import com.meta.junitproject.routing.RoutingContext;
 import com.meta.junitproject.web.dto.response.BookListRespDto;
 import com.meta.junitproject.web.dto.response.BookRespDto;
 import com.meta.junitproject.web.dto.request.BookSaveReqDto;
+import com.meta.junitproject.web.handler.ex.BookConflictException;
+import com.meta.junitproject.web.handler.ex.BookNotFoundException;
+import com.meta.junitproject.web.handler.ex.BookPreconditionFailedException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Client -> (Filter) -> Dispatcher Servlet -> Controller -> Service -> Repository -> Persistence Context -> DB
@@ -27,65 +46,204 @@ import java.util.stream.Collectors;
 @Service
 public class BookService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
     // final: 객체 생성 시점에 값이 들어와야 함 -> RequiredArgsConstructor
     private final BookRepository bookRepository;
-    private final MailSender mailSender;
+    private final MailOutboxRepository mailOutboxRepository;
+    private final EntityManager em;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${book.delete.soft:false}")
+    private boolean softDelete; // true: tombstone만 남기고 BookCompactionJob이 나중에 지운다.
+
+    @Value("${book.update.max-attempts:3}")
+    private int updateMaxAttempts;
+
+    @Value("${book.update.retry-backoff:10ms}")
+    private Duration updateRetryBackoff;
 
     // 1. 책 등록
+    @CachePut(cacheNames = CacheConfig.BOOK_CACHE, key = "#result.id")
     @Transactional(rollbackFor = RuntimeException.class)
     public BookRespDto register_book(BookSaveReqDto dto) {
         // 영속화된 객체를 컨트롤러로 응답해주면 컨트롤러 단에서 lazy-loading 변수 발생
         // jpa: open in view: true시 컨트롤러 단까지 세션을 유지하는 형식이라 지연 로딩 가능
         Book bookPS = bookRepository.save(dto.toEntity());
-        if (bookPS != null) {
-            if (!mailSender.send()) {
-                throw new RuntimeException("메일이 전송되지 않았습니다.");
-            }
-        }
-        return bookPS.toDto();
+        // 메일은 같은 트랜잭션에서 outbox에 기록만 하고, 발송은 MailDispatcher가 커밋 이후 백그라운드에서 한다.
+        // (메일 서버 지연이 등록 트랜잭션/커넥션 점유 시간에 영향을 주지 않음)
+        mailOutboxRepository.save(MailOutbox.builder().bookId(bookPS.getId()).build());
+
+        BookRespDto bookRespDto = bookPS.toDto();
+        eventPublisher.publishEvent(BookChangedEvent.created(bookRespDto));
+        return bookRespDto;
     }
 
     // 2. 책 목록 보기
-    // stream / filter / map(박스에 옮겨담기, 얘만의 스트림으로 바뀜) / collect(변환해서 수집/목적지로 전달)
+    // 조회는 엔티티 대신 dto projection으로 바로 받는다. (엔티티 생성, 영속성 컨텍스트 등록, 더티 체킹 스냅샷 없음)
+    // readOnly = true: hibernate flush mode MANUAL(= 예전 NEVER) + read-only 세션
+    @Transactional(readOnly = true)
     public BookListRespDto look_book_contents() {
-        List<BookRespDto> dtos = bookRepository.findAll().stream()
-//                .map((bookPS) -> bookPS.toDto())
-                .map(Book::toDto)
-                .collect(Collectors.toList());
+        List<BookRespDto> dtos = bookRepository.findAllDtos();
 
         BookListRespDto bookListRespDto = BookListRespDto.builder().bookList(dtos).build();
         return bookListRespDto;
     }
 
+    // 2-1. 책 목록 보기 (keyset 페이징)
+    // after: 이전 페이지 마지막 id (없으면 처음부터), limit: 페이지 크기 (MAX_PAGE_SIZE로 제한)
+    // limit + 1건을 읽어 다음 페이지 존재 여부를 판단한다.
+    @Transactional(readOnly = true)
+    public BookListRespDto look_book_page(Long after, Integer limit) {
+        long cursor = (after == null || after < 0) ? 0L : after;
+        int size = (limit == null || limit < 1) ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+
+        List<BookRespDto> dtos = bookRepository.findDtoPageAfter(cursor, PageRequest.of(0, size + 1));
+        boolean hasNext = dtos.size() > size;
+        if (hasNext) {
+            dtos = dtos.subList(0, size);
+        }
+
+        Long next = hasNext ? dtos.get(dtos.size() - 1).getId() : null;
+        return BookListRespDto.builder().bookList(dtos).next(next).build();
+    }
+
+    // 2-2. 책 전체 내보내기 (NDJSON export)
+    // 한 건씩 writer에 넘기고 바로 detach -> 영속성 컨텍스트가 커지지 않아 힙 사용량이 일정하다.
+    // writer는 이 트랜잭션 안에서 엔티티를 바로 json으로 쓴다. (dto를 만들지 않음, Book은 연관관계가 없어 lazy loading 없음)
+    // 엔티티를 반환하는 것이 아니라 트랜잭션 안에서만 빌려주는 것이므로 컨트롤러까지 영속 객체가 나가지 않는다.
+    @Transactional(readOnly = true)
+    public long export_books(Consumer<Book> writer) {
+        long count = 0;
+        try (Stream<Book> booksPS = bookRepository.streamAll()) {
+            for (Book bookPS : (Iterable<Book>) booksPS::iterator) {
+                writer.accept(bookPS);
+                em.detach(bookPS);
+                count++;
+            }
+        }
+        return count;
+    }
+
     // 3. 책 한 권 보기
+    // 캐시 hit이면 DB 조회 없음, sync = true: 같은 id 동시 miss는 한 번만 조회 + 무효화 이후 옛날 값 put 방지 (BookCaffeineCache)
+    @Cacheable(cacheNames = CacheConfig.BOOK_CACHE, key = "#id", sync = true)
+    @Transactional(readOnly = true)
     public BookRespDto look_one_book(Long id) {
-        Optional<Book> bookOP = bookRepository.findById(id);
+        // 캐시에 오래 남는 값이라 지연될 수 있는 replica가 아니라 primary에서 읽는다. (읽기/쓰기 분리 시)
+        Optional<BookRespDto> bookOP = RoutingContext.onPrimary(() -> bookRepository.findDtoById(id));
         if (bookOP.isPresent()) {
-            Book bookPS = bookOP.get();
-            return bookPS.toDto();
+            return bookOP.get();
         } else {
-            throw new RuntimeException("해당 아이디를 찾을 수 없습니다.");
+            throw new BookNotFoundException();
         }
     }
 
     // 4. 책 삭제
+    // 살아 있는 id를 잠그는 select 1번 + delete(또는 soft delete) 한 문장
+    @CacheEvict(cacheNames = CacheConfig.BOOK_CACHE, key = "#id")
     @Transactional(rollbackFor = RuntimeException.class)
     public void delete_book(Long id) { // 없는 id면 롤백할 필요가 없다. (DB에서 삭제를 안 했기 때문)
-        bookRepository.deleteById(id);
+        if (delete_by_ids(List.of(id)) == 0) {
+            throw new BookNotFoundException();
+        }
     }
 
-    // 5. 책 수정
-    // Transactional 걸린 애들은 컨트롤러로 넘겨줄 필요 없음.
+    // 4-1. 책 일괄 삭제 (id 목록), 없는 id는 건너뛴다. 삭제된 건수 반환
+    @CacheEvict(cacheNames = CacheConfig.BOOK_CACHE, allEntries = true)
     @Transactional(rollbackFor = RuntimeException.class)
+    public int delete_books(List<Long> ids) {
+        return delete_by_ids(ids);
+    }
+
+    // 4-2. 책 일괄 삭제 (id 범위, from <= id <= to)
+    // 있는 id를 한 번에 읽고(이벤트 대상) 그 id들만 한 문장으로 지운다. (그 사이 새로 등록된 책은 지우지 않음)
+    @CacheEvict(cacheNames = CacheConfig.BOOK_CACHE, allEntries = true)
+    @Transactional(rollbackFor = RuntimeException.class)
+    public int delete_books_between(Long from, Long to) {
+        List<Long> ids = bookRepository.findIdsBetween(from, to);
+        return ids.isEmpty() ? 0 : delete_by_ids(ids);
+    }
+
+    // 살아 있는 id만 잠가서 지우고 그 id들만 이벤트를 낸다. (변경 내역, 캐시, 검색 색인, 스냅샷)
+    private int delete_by_ids(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> liveIds = bookRepository.lockLiveIds(ids);
+        if (liveIds.isEmpty()) {
+            return 0;
+        }
+        int deleted = softDelete
+                ? bookRepository.softDeleteByIds(liveIds, Instant.now())
+                : bookRepository.deleteByIds(liveIds);
+        liveIds.forEach(id -> eventPublisher.publishEvent(BookChangedEvent.deleted(id)));
+        return deleted;
+    }
+
+    // 5. 책 수정 (If-Match 없음)
+    // 현재 version을 읽고 조건부 update, 그 사이 다른 수정이 먼저 커밋되면 다시 읽어서 재시도한다. (시도마다 트랜잭션 1개)
+    // 재시도를 다 쓰면 409. 캐시는 수정이 커밋된 뒤 evict
+    @CacheEvict(cacheNames = CacheConfig.BOOK_CACHE, key = "#id")
     public BookRespDto modify_book(Long id, BookSaveReqDto dto) { // id, title, author
-        Optional<Book> bookOP = bookRepository.findById(id);
-        if (bookOP.isPresent()) {
-            Book bookPS = bookOP.get();
-            bookPS.update(dto.getTitle(), dto.getAuthor());
-            return bookPS.toDto();
-        } else {
-            throw new RuntimeException("해당 아이디를 찾을 수 없습니다.");
+        for (int attempt = 1; ; attempt++) {
+            BookRespDto bookRespDto = transactionTemplate.execute(status -> {
+                BookVersion bookVersion = bookRepository.findVersionById(id)
+                        .orElseThrow(BookNotFoundException::new);
+                return update_if_version(id, dto, bookVersion.getVersion());
+            });
+            if (bookRespDto != null) {
+                return bookRespDto;
+            }
+            if (attempt >= updateMaxAttempts) {
+                throw new BookConflictException("다른 수정 요청과 충돌했습니다. 잠시 후 다시 시도해주세요.");
+            }
+            backoff(attempt);
         }
-    } // method 종료시 더티 체킹(flush)으로 update된다.
+    }
 
+    // 5-1. 책 수정 (If-Match: 클라이언트가 조회했던 version)
+    // SELECT 없이 update 한 문장, version이 다르면 412 (다시 조회해서 수정해야 함)
+    @CacheEvict(cacheNames = CacheConfig.BOOK_CACHE, key = "#id")
+    @Transactional(rollbackFor = RuntimeException.class)
+    public BookRespDto modify_book(Long id, BookSaveReqDto dto, long expectedVersion) {
+        BookRespDto bookRespDto = update_if_version(id, dto, expectedVersion);
+        if (bookRespDto != null) {
+            return bookRespDto;
+        }
+        if (bookRepository.findVersionById(id).isEmpty()) {
+            throw new BookNotFoundException();
+        }
+        throw new BookPreconditionFailedException("조회한 이후 다른 요청이 먼저 수정했습니다. 다시 조회한 뒤 수정해주세요.");
+    }
+
+    // update된 행이 없으면 null
+    private BookRespDto update_if_version(Long id, BookSaveReqDto dto, long version) {
+        Instant now = Instant.now();
+        if (bookRepository.updateIfVersion(id, version, dto.getTitle(), dto.getAuthor(), now) == 0) {
+            return null;
+        }
+
+        BookRespDto bookRespDto = BookRespDto.builder()
+                .id(id)
+                .title(dto.getTitle())
+                .author(dto.getAuthor())
+                .version(version + 1)
+                .modifiedAt(now)
+                .build();
+        eventPublisher.publishEvent(BookChangedEvent.updated(bookRespDto));
+        return bookRespDto;
+    }
+
+    // 충돌한 요청들이 같은 순간에 다시 몰리지 않도록 시도 횟수에 비례한 무작위 대기
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(updateRetryBackoff.toMillis() * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookConflictException("수정 재시도 중 중단되었습니다.");
+        }
+    }
 }
\ No newline at end of file
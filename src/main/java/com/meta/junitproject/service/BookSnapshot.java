@@ -0,0 +1,405 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.domain.Book;
+import com.meta.junitproject.domain.BookCatalogVersion;
+import com.meta.junitproject.domain.BookVersion;
+import com.meta.junitproject.web.dto.response.BookListRespDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import com.meta.junitproject.web.dto.response.BookRows;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+
+/**
+ * 책 목록 전체의 불변 스냅샷 (BookSnapshotStore가 커밋마다 새로 만들어 통째로 바꾼다)
+ *
+ * 1. 책 한 건은 객체가 아니라 id 오름차순 열(column) 배열의 한 위치다. (id, version, modifiedAt은 primitive)
+ * 2. id -> 위치는 long 키 open addressing 해시 (boxing 없음, load factor 0.5 이하, 선형 탐사)
+ * 3. 전체 목록 응답(BookListRespDto)은 만들 때 한 번 만들어 두고, 항목은 직렬화할 때 열에서 바로 쓴다. (BookRows, dto 없음)
+ * 4. 변경(apply)은 기존 열을 복사하면서 바뀐 id만 끼워 넣은 새 스냅샷을 돌려준다. (copy-on-write, 기존 스냅샷은 그대로)
+ *
+ * 만든 뒤에는 아무것도 바뀌지 않으므로 잠금 없이 여러 스레드가 읽는다.
+ */
+public final class BookSnapshot {
+
+    private static final long EMPTY = 0L; // id는 1부터 시작하므로 빈 슬롯 표시로 쓴다.
+    private static final long NULL_LONG = Long.MIN_VALUE; // version, modifiedAt이 null인 경우
+
+    // 메모리 계산 (64bit JVM, compressed oops 기준 추정치)
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int STRING_HEADER = 24;
+
+    private final long generation;
+    private final int size;
+    private final long[] ids;
+    private final String[] titles;
+    private final String[] authors;
+    private final long[] versions;
+    private final long[] modifiedSeconds;
+    private final int[] modifiedNanos;
+    private final long[] slotIds;
+    private final int[] slotPositions;
+    private final int shift;
+    private final BookCatalogVersion catalogVersion;
+    private final BookListRespDto contents;
+    private final long bytes;
+
+    private BookSnapshot(long generation, Columns columns, Instant changedAt) {
+        columns.trim();
+        this.generation = generation;
+        this.size = columns.size;
+        this.ids = columns.ids;
+        this.titles = columns.titles;
+        this.authors = columns.authors;
+        this.versions = columns.versions;
+        this.modifiedSeconds = columns.modifiedSeconds;
+        this.modifiedNanos = columns.modifiedNanos;
+
+        int capacity = Integer.highestOneBit(Math.max(8, size) * 2 - 1) << 1;
+        this.slotIds = new long[capacity];
+        this.slotPositions = new int[capacity];
+        this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        long versionSum = 0;
+        long maxModified = NULL_LONG;
+        int maxModifiedNanos = 0;
+        for (int position = 0; position < size; position++) {
+            int slot = slot(ids[position]);
+            while (slotIds[slot] != EMPTY) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            slotIds[slot] = ids[position];
+            slotPositions[slot] = position;
+
+            if (versions[position] != NULL_LONG) {
+                versionSum += versions[position];
+            }
+            if (modifiedSeconds[position] > maxModified
+                    || (modifiedSeconds[position] == maxModified && modifiedNanos[position] > maxModifiedNanos)) {
+                maxModified = modifiedSeconds[position];
+                maxModifiedNanos = modifiedNanos[position];
+            }
+        }
+
+        // findCatalogVersion()과 같은 값 (건수, 최대 id, 버전 합계, 최대 modifiedAt) -> DB에서 읽을 때와 ETag가 같다.
+        // changedAt: 마지막으로 반영한 변경 시각 (삭제는 modifiedAt에 드러나지 않으므로)
+        this.catalogVersion = new BookCatalogVersion((long) size, size == 0 ? 0L : ids[size - 1], versionSum,
+                maxModified == NULL_LONG ? null : Instant.ofEpochSecond(maxModified, maxModifiedNanos))
+                .changedAt(changedAt);
+        this.contents = BookListRespDto.builder().bookList(new Rows()).build();
+        this.bytes = estimateBytes();
+    }
+
+    static BookSnapshot empty() {
+        return new BookSnapshot(0, new Columns(0), null);
+    }
+
+    // id 오름차순으로 받은 책들로 만든다. (시작 시 전체 조회)
+    static Columns columns(int expectedSize) {
+        return new Columns(expectedSize);
+    }
+
+    static BookSnapshot of(Columns columns, long generation, Instant changedAt) {
+        return new BookSnapshot(generation, columns, changedAt);
+    }
+
+    // 커밋된 변경들을 순서대로 반영한 새 스냅샷 (같은 id는 마지막 변경만 남는다)
+    // afterCommit은 커밋 순서대로 불린다는 보장이 없으므로 늦게 도착한 옛날 수정은 버린다.
+    // - UPDATED: 가지고 있는 version보다 낮으면 무시, 없는 책(이미 삭제됨, 다른 인스턴스에서 등록됨)이면 무시
+    BookSnapshot apply(List<BookChangedEvent> events, Instant now) {
+        if (events.isEmpty()) {
+            return this;
+        }
+        TreeMap<Long, BookChangedEvent> changes = new TreeMap<>();
+        for (BookChangedEvent event : events) {
+            BookChangedEvent previous = changes.get(event.getId());
+            if (previous != null && previous.getType() == BookChangedEvent.Type.CREATED
+                    && event.getType() == BookChangedEvent.Type.UPDATED) {
+                event = BookChangedEvent.created(event.getBook()); // 같은 트랜잭션에서 등록 후 수정
+            }
+            changes.put(event.getId(), event);
+        }
+
+        // 정렬된 기존 열과 정렬된 변경을 한 번에 merge
+        Columns merged = new Columns(size + changes.size());
+        Iterator<BookChangedEvent> it = changes.values().iterator();
+        BookChangedEvent change = it.hasNext() ? it.next() : null;
+        int position = 0;
+        while (position < size || change != null) {
+            long id = position < size ? ids[position] : Long.MAX_VALUE;
+            if (change == null || id < change.getId()) {
+                merged.copy(this, position++);
+                continue;
+            }
+            boolean exists = id == change.getId();
+            if (exists && isOlder(change, versions[position])) {
+                merged.copy(this, position++); // 기존 값이 더 최신
+            } else {
+                if (exists) {
+                    position++; // 기존 값은 버리고 변경으로 대신한다.
+                }
+                if (change.getType() == BookChangedEvent.Type.CREATED
+                        || (change.getType() == BookChangedEvent.Type.UPDATED && exists)) {
+                    merged.add(change.getBook());
+                }
+            }
+            change = it.hasNext() ? it.next() : null;
+        }
+        return new BookSnapshot(generation + 1, merged, now);
+    }
+
+    private static boolean isOlder(BookChangedEvent change, long version) {
+        return change.getType() == BookChangedEvent.Type.UPDATED
+                && change.getBook().getVersion() != null && version != NULL_LONG
+                && change.getBook().getVersion() < version;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // 이 스냅샷이 차지하는 메모리 (열 배열 + 해시 + 문자열, 추정치)
+    public long getBytes() {
+        return bytes;
+    }
+
+    public BookCatalogVersion getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    // 전체 목록 (id 오름차순, look_book_contents와 같은 순서)
+    public BookListRespDto getContents() {
+        return contents;
+    }
+
+    // 없으면 null
+    public BookRespDto find(long id) {
+        int position = position(id);
+        return position < 0 ? null : row(position);
+    }
+
+    public Optional<BookVersion> findVersion(long id) {
+        int position = position(id);
+        if (position < 0) {
+            return Optional.empty();
+        }
+        long version = versions[position];
+        return Optional.of(new BookVersion(ids[position], version == NULL_LONG ? 0L : version, modifiedAt(position)));
+    }
+
+    private int position(long id) {
+        if (id == EMPTY) {
+            return -1;
+        }
+        int mask = slotIds.length - 1;
+        for (int slot = slot(id); ; slot = (slot + 1) & mask) {
+            long key = slotIds[slot];
+            if (key == id) {
+                return slotPositions[slot];
+            }
+            if (key == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    // fibonacci hashing: 연속된 id도 슬롯에 고르게 퍼진다.
+    private int slot(long id) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private BookRespDto row(int position) {
+        return new BookRespDto(ids[position], titles[position], authors[position],
+                toLong(versions[position]), modifiedAt(position));
+    }
+
+    private Instant modifiedAt(int position) {
+        long seconds = modifiedSeconds[position];
+        return seconds == NULL_LONG ? null : Instant.ofEpochSecond(seconds, modifiedNanos[position]);
+    }
+
+    private static Long toLong(long value) {
+        return value == NULL_LONG ? null : value;
+    }
+
+    private long estimateBytes() {
+        long total = align(ARRAY_HEADER + (long) ids.length * Long.BYTES)
+                + 2 * align(ARRAY_HEADER + (long) titles.length * REFERENCE)
+                + 2 * align(ARRAY_HEADER + (long) versions.length * Long.BYTES)
+                + align(ARRAY_HEADER + (long) modifiedNanos.length * Integer.BYTES)
+                + align(ARRAY_HEADER + (long) slotIds.length * Long.BYTES)
+                + align(ARRAY_HEADER + (long) slotPositions.length * Integer.BYTES);
+        for (int position = 0; position < size; position++) {
+            total += stringBytes(titles[position]) + stringBytes(authors[position]);
+        }
+        return total;
+    }
+
+    // compact strings: latin1이면 글자당 1byte, 아니면(한글 등) 2byte
+    private static long stringBytes(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return STRING_HEADER + align(ARRAY_HEADER + (long) value.length() * bytesPerChar);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    // 목록 응답의 items, 스냅샷마다 dto를 들고 있지 않는다. (BookJsonModule은 get(i) 없이 열에서 바로 쓴다)
+    private final class Rows extends AbstractList<BookRespDto> implements BookRows, RandomAccess {
+
+        @Override
+        public BookRespDto get(int index) {
+            checkIndex(index);
+            return row(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public long id(int index) {
+            checkIndex(index);
+            return ids[index];
+        }
+
+        @Override
+        public String title(int index) {
+            checkIndex(index);
+            return titles[index];
+        }
+
+        @Override
+        public String author(int index) {
+            checkIndex(index);
+            return authors[index];
+        }
+
+        @Override
+        public boolean hasVersion(int index) {
+            checkIndex(index);
+            return versions[index] != NULL_LONG;
+        }
+
+        @Override
+        public long version(int index) {
+            checkIndex(index);
+            return versions[index];
+        }
+
+        @Override
+        public Instant modifiedAt(int index) {
+            checkIndex(index);
+            return BookSnapshot.this.modifiedAt(index);
+        }
+
+        // 범위 밖이면 다른 List처럼 IndexOutOfBoundsException
+        private void checkIndex(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+            }
+        }
+    }
+
+    // 스냅샷을 만드는 동안만 쓰는 가변 열 (id 오름차순으로만 추가)
+    static final class Columns {
+        private long[] ids;
+        private String[] titles;
+        private String[] authors;
+        private long[] versions;
+        private long[] modifiedSeconds;
+        private int[] modifiedNanos;
+        private int size;
+
+        private Columns(int capacity) {
+            ids = new long[capacity];
+            titles = new String[capacity];
+            authors = new String[capacity];
+            versions = new long[capacity];
+            modifiedSeconds = new long[capacity];
+            modifiedNanos = new int[capacity];
+        }
+
+        void add(BookRespDto book) {
+            add(book.getId(), book.getTitle(), book.getAuthor(),
+                    book.getVersion() == null ? NULL_LONG : book.getVersion(), book.getModifiedAt());
+        }
+
+        // 엔티티에서 바로 (rebuild, dto를 만들지 않음)
+        void add(Book book) {
+            add(book.getId(), book.getTitle(), book.getAuthor(), book.getVersion(), book.getModifiedAt());
+        }
+
+        private void add(long id, String title, String author, long version, Instant modifiedAt) {
+            if (id == EMPTY || (size > 0 && id <= ids[size - 1])) {
+                throw new IllegalArgumentException("id 오름차순이 아닙니다: " + id);
+            }
+            ensureCapacity();
+            ids[size] = id;
+            titles[size] = title;
+            authors[size] = author;
+            versions[size] = version;
+            modifiedSeconds[size] = modifiedAt == null ? NULL_LONG : modifiedAt.getEpochSecond();
+            modifiedNanos[size] = modifiedAt == null ? 0 : modifiedAt.getNano();
+            size++;
+        }
+
+        private void copy(BookSnapshot from, int position) {
+            ensureCapacity();
+            ids[size] = from.ids[position];
+            titles[size] = from.titles[position];
+            authors[size] = from.authors[position];
+            versions[size] = from.versions[position];
+            modifiedSeconds[size] = from.modifiedSeconds[position];
+            modifiedNanos[size] = from.modifiedNanos[position];
+            size++;
+        }
+
+        // 남는 칸은 스냅샷에 들고 가지 않는다.
+        private void trim() {
+            if (ids.length == size) {
+                return;
+            }
+            ids = Arrays.copyOf(ids, size);
+            titles = Arrays.copyOf(titles, size);
+            authors = Arrays.copyOf(authors, size);
+            versions = Arrays.copyOf(versions, size);
+            modifiedSeconds = Arrays.copyOf(modifiedSeconds, size);
+            modifiedNanos = Arrays.copyOf(modifiedNanos, size);
+        }
+
+        private void ensureCapacity() {
+            if (size < ids.length) {
+                return;
+            }
+            int capacity = Math.max(16, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            authors = Arrays.copyOf(authors, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            modifiedSeconds = Arrays.copyOf(modifiedSeconds, capacity);
+            modifiedNanos = Arrays.copyOf(modifiedNanos, capacity);
+        }
+    }
+}
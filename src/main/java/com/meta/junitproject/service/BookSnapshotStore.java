@@ -0,0 +1,184 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.domain.Book;
+import com.meta.junitproject.domain.BookRepository;
+import com.meta.junitproject.routing.RoutingContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 조회(책 한 건, 전체 목록, 버전) 응답용 메모리 스냅샷, book.snapshot.enabled=true일 때만 동작
+ * 1. 시작 시(warm-up) BookRepository에서 전체를 읽어 BookSnapshot을 만든다. 그 전까지는 DB에서 읽는다.
+ * 2. 트랜잭션 안에서 발행된 BookChangedEvent를 모아 두었다가 커밋되면 한 번에 반영한 새 스냅샷으로 바꾼다.
+ *    (트랜잭션당 복사 1번, 롤백되면 버린다) 커밋한 요청 스레드에서 바꾸므로 응답 이후의 조회는 새 스냅샷을 본다.
+ *    afterCommit 순서는 커밋 순서와 다를 수 있어서 version이 더 낮은 수정은 BookSnapshot.apply에서 버린다.
+ * 3. 읽기는 volatile 참조 하나만 읽는다. (잠금 없음, 한 요청 안에서는 같은 시점의 스냅샷)
+ * 4. 다른 인스턴스의 변경은 rebuild-interval마다 다시 만들 때 반영된다.
+ *    그 사이 primary에서 읽어야 하는 요청(read-your-writes)은 스냅샷을 쓰지 않는다.
+ *
+ * 계측: book.snapshot.books, book.snapshot.bytes (추정 메모리), book.snapshot.bytes.per.book
+ */
+@RequiredArgsConstructor
+@Component
+public class BookSnapshotStore {
+
+    private static final BookSnapshot EMPTY = BookSnapshot.empty();
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager em;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${book.snapshot.enabled:false}")
+    private boolean enabled;
+
+    private volatile BookSnapshot snapshot; // warm-up 전이거나 꺼져 있으면 null
+    private final Object rebuildLock = new Object();
+    private List<BookChangedEvent> pendingDuringRebuild; // rebuild 중 커밋된 변경 (끝나고 다시 적용), this로 동기화
+
+    @PostConstruct
+    public void registerMetrics() {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("book.snapshot.books", this, store -> store.current().size())
+                .description("books held in the in-memory read snapshot")
+                .register(meterRegistry);
+        Gauge.builder("book.snapshot.bytes", this, store -> store.current().getBytes())
+                .description("estimated heap bytes of the in-memory read snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("book.snapshot.bytes.per.book", this, store -> {
+                    BookSnapshot current = store.current();
+                    return current.size() == 0 ? 0 : (double) current.getBytes() / current.size();
+                })
+                .description("estimated heap bytes per book in the in-memory read snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    // 스냅샷으로 응답할 수 있으면 현재 스냅샷, 아니면 null (DB에서 읽는다)
+    public BookSnapshot serving() {
+        BookSnapshot current = snapshot;
+        if (current == null || RoutingContext.isPrimaryRequired()) {
+            return null;
+        }
+        return current;
+    }
+
+    // 1. warm-up
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    // 4. 다른 인스턴스의 변경 반영
+    @Scheduled(initialDelayString = "${book.snapshot.rebuild-interval:600000}",
+            fixedDelayString = "${book.snapshot.rebuild-interval:600000}")
+    public void refresh() {
+        if (enabled && snapshot != null) {
+            rebuild();
+        }
+    }
+
+    // 전체를 다시 읽어 만든다. 읽는 동안에도 기존 스냅샷으로 응답하고, 다 만들면 바꾼다.
+    // 복제 지연으로 방금 커밋한 변경을 놓치지 않도록 쓰기 트랜잭션(primary)으로 읽는다.
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pendingDuringRebuild = new ArrayList<>();
+            }
+
+            BookSnapshot.Columns columns = BookSnapshot.columns(1024);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<Book> booksPS = bookRepository.streamAll()) {
+                        booksPS.forEach(bookPS -> {
+                            columns.add(bookPS);
+                            em.detach(bookPS);
+                        });
+                    }
+                });
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pendingDuringRebuild = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                BookSnapshot previous = snapshot;
+                long generation = previous == null ? 1 : previous.getGeneration() + 1;
+                Instant changedAt = previous == null ? null : previous.getCatalogVersion().getModifiedAt();
+                snapshot = BookSnapshot.of(columns, generation, changedAt).apply(pendingDuringRebuild, Instant.now());
+                pendingDuringRebuild = null;
+            }
+        }
+    }
+
+    // 2. 트랜잭션 안에서는 모아 두고 커밋되면 반영, 트랜잭션 밖이면 바로 반영
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingBatch().events.add(event);
+            return;
+        }
+        apply(List.of(event));
+    }
+
+    private Batch pendingBatch() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Batch) {
+                return (Batch) synchronization;
+            }
+        }
+        Batch batch = new Batch();
+        TransactionSynchronizationManager.registerSynchronization(batch);
+        return batch;
+    }
+
+    private synchronized void apply(List<BookChangedEvent> events) {
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.addAll(events);
+        }
+        if (snapshot != null) {
+            snapshot = snapshot.apply(events, Instant.now());
+        }
+    }
+
+    private BookSnapshot current() {
+        BookSnapshot current = snapshot;
+        return current == null ? EMPTY : current;
+    }
+
+    // 트랜잭션 하나에서 발행된 변경들
+    private class Batch implements TransactionSynchronization {
+        private final List<BookChangedEvent> events = new ArrayList<>();
+
+        @Override
+        public void afterCommit() {
+            apply(events);
+        }
+    }
+}
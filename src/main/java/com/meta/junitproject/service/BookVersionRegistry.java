@@ -0,0 +1,100 @@
+package com.meta.junitproject.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.meta.junitproject.domain.BookCatalogVersion;
+import com.meta.junitproject.domain.BookRepository;
+import com.meta.junitproject.domain.BookVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * 조건부 GET(If-None-Match / If-Modified-Since)용 버전 캐시
+ * - 책 한 권: id -> (version, modifiedAt), 없으면 버전만 조회 (본문 조회/직렬화 없음)
+ * - 목록: BookCatalogVersion (건수, 최대 id, 버전 합계, 최대 modifiedAt)
+ *   전체 집계 쿼리라 동시에 비어 있는 캐시를 만난 요청들은 조회 1번을 같이 기다린다. (SingleFlight, generation별)
+ * 이 인스턴스에서 커밋된 변경은 바로 무효화하고, 다른 인스턴스의 변경은 expire-after-write 이내에 반영된다.
+ * 메모리 스냅샷(BookSnapshotStore)으로 응답 중이면 버전도 스냅샷에서 읽는다. (본문과 같은 시점)
+ */
+@Component
+public class BookVersionRegistry {
+
+    private final BookRepository bookRepository;
+    private final BookSnapshotStore bookSnapshotStore;
+    private final Cache<Long, BookVersion> versions;
+    private final long catalogTtlNanos;
+    private final SingleFlight<Long, BookCatalogVersion> catalogLoads; // key: 조회를 시작한 generation
+
+    // 목록 버전은 한 값이라 lock으로 관리 (무효화 이후 옛날 조회 결과가 저장되지 않도록 generation 비교)
+    private long generation;
+    private BookCatalogVersion catalog;
+    private long catalogLoadedAt;
+    private Instant lastChangedAt; // 삭제는 max(modifiedAt)에 드러나지 않으므로 따로 기록
+
+    public BookVersionRegistry(BookRepository bookRepository, BookSnapshotStore bookSnapshotStore,
+                               MeterRegistry meterRegistry,
+                               @Value("${book.etag.maximum-size:10000}") long maximumSize,
+                               @Value("${book.etag.expire-after-write:5s}") Duration expireAfterWrite,
+                               @Value("${book.read.coalescing.timeout:2s}") Duration loadTimeout) {
+        this.bookRepository = bookRepository;
+        this.bookSnapshotStore = bookSnapshotStore;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        this.catalogTtlNanos = expireAfterWrite.toNanos();
+        this.catalogLoads = new SingleFlight<>("find_catalog_version", loadTimeout, meterRegistry);
+    }
+
+    // 없는 id면 empty
+    public Optional<BookVersion> find(Long id) {
+        BookSnapshot snapshot = bookSnapshotStore.serving();
+        if (snapshot != null) {
+            return snapshot.findVersion(id);
+        }
+        return Optional.ofNullable(versions.get(id, key -> bookRepository.findVersionById(key).orElse(null)));
+    }
+
+    public BookCatalogVersion catalog() {
+        BookSnapshot snapshot = bookSnapshotStore.serving();
+        if (snapshot != null) {
+            return snapshot.getCatalogVersion();
+        }
+        long loadingGeneration;
+        synchronized (this) {
+            if (catalog != null && System.nanoTime() - catalogLoadedAt < catalogTtlNanos) {
+                return catalog;
+            }
+            loadingGeneration = generation;
+        }
+
+        // 커밋 이후(generation 증가)에 온 요청은 그 전에 시작한 조회에 합류하지 않는다.
+        BookCatalogVersion loaded = catalogLoads.execute(loadingGeneration, bookRepository::findCatalogVersion);
+
+        synchronized (this) {
+            loaded = loaded.changedAt(lastChangedAt);
+            if (generation == loadingGeneration) {
+                catalog = loaded;
+                catalogLoadedAt = System.nanoTime();
+            }
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        versions.invalidate(event.getId());
+        synchronized (this) {
+            generation++;
+            catalog = null;
+            lastChangedAt = Instant.now();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.domain.MailOutbox;
+import com.meta.junitproject.domain.MailOutboxRepository;
+import com.meta.junitproject.domain.MailOutboxStatus;
+import com.meta.junitproject.util.MailSender;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * outbox(MailOutbox)에 쌓인 메일을 백그라운드에서 batch 단위로 발송한다.
+ * 1. 짧은 트랜잭션으로 발송할 건을 batch-size만큼 가져간다. (claim)
+ *    PENDING -> SENDING 조건부 update로 이번 실행의 claimToken과 lease(nextAttemptAt = now + lease)를 기록하므로
+ *    여러 인스턴스나 interval보다 오래 걸린 실행이 같은 건을 두 번 보내지 않는다.
+ *    발송 중 죽은 인스턴스의 건은 lease가 끝나면 다른 dispatcher가 다시 가져간다.
+ * 2. 트랜잭션 밖에서 MailSender로 발송 (메일 서버가 느려도 DB 커넥션을 잡고 있지 않음)
+ * 3. 성공 건은 한 번에 SENT, 실패 건은 지수 backoff 후 재시도, max-attempts를 넘기면 FAILED
+ * backpressure: 한 번 실행에 max-batches-per-run까지만 처리하고, 실패가 나면 이번 실행은 멈춘다. (메일 서버를 계속 두드리지 않음)
+ */
+@ConditionalOnProperty(name = "book.mail.dispatch.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Component
+public class MailDispatcher {
+
+    private static final List<MailOutboxStatus> CLAIMABLE = List.of(MailOutboxStatus.PENDING, MailOutboxStatus.SENDING);
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final MailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${book.mail.dispatch.batch-size:100}")
+    private int batchSize;
+
+    @Value("${book.mail.dispatch.max-batches-per-run:10}")
+    private int maxBatchesPerRun;
+
+    @Value("${book.mail.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${book.mail.dispatch.retry-backoff:1s}")
+    private Duration retryBackoff;
+
+    @Value("${book.mail.dispatch.lease:5m}")
+    private Duration lease;
+
+    @Scheduled(fixedDelayString = "${book.mail.dispatch.interval:1000}")
+    public void dispatch() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            BatchResult result = dispatch_batch();
+            if (result.failed > 0 || result.total < batchSize) {
+                return;
+            }
+        }
+    }
+
+    public BatchResult dispatch_batch() {
+        String claimToken = UUID.randomUUID().toString();
+        List<MailOutbox> batch = claim_batch(claimToken);
+        if (batch.isEmpty()) {
+            return new BatchResult(0, 0);
+        }
+
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        List<MailOutbox> failed = new ArrayList<>();
+        for (MailOutbox mailOutbox : batch) {
+            if (send()) {
+                sentIds.add(mailOutbox.getId());
+            } else {
+                failed.add(mailOutbox);
+            }
+        }
+
+        LocalDateTime finishedAt = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                mailOutboxRepository.markSent(sentIds, claimToken, finishedAt);
+            }
+            for (MailOutbox mailOutbox : failed) {
+                int attempts = mailOutbox.getAttempts() + 1;
+                MailOutboxStatus nextStatus = attempts >= maxAttempts ? MailOutboxStatus.FAILED : MailOutboxStatus.PENDING;
+                LocalDateTime nextAttemptAt = finishedAt.plus(retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 10)));
+                mailOutboxRepository.markRetry(mailOutbox.getId(), claimToken, nextStatus, attempts, nextAttemptAt);
+            }
+        });
+        return new BatchResult(batch.size(), failed.size());
+    }
+
+    // 이번 실행(claimToken)이 가져간 건들, 다른 dispatcher가 먼저 가져간 건은 빠진다.
+    public List<MailOutbox> claim_batch(String claimToken) {
+        LocalDateTime now = LocalDateTime.now();
+        List<MailOutbox> batch = transactionTemplate.execute(status -> {
+            List<Long> ids = mailOutboxRepository.findDispatchableIds(CLAIMABLE, now, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            mailOutboxRepository.claim(ids, CLAIMABLE, now, claimToken, now.plus(lease));
+            return mailOutboxRepository.findClaimed(claimToken);
+        });
+        return batch == null ? List.of() : batch;
+    }
+
+    private boolean send() {
+        try {
+            return mailSender.send();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class BatchResult {
+        private final int total;
+        private final int failed;
+    }
+}
@@ -0,0 +1,86 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.web.handler.ex.BookUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 같은 key의 조회가 동시에 여러 개 들어오면 먼저 온 하나(leader)만 실행하고 나머지(follower)는 그 결과를 같이 받는다.
+ * - 결과(예외 포함)는 진행 중인 호출에만 공유하고 저장하지 않는다. (끝나면 map에서 지움)
+ * - follower는 최대 timeout까지만 기다리고, 넘으면 합치지 않고 직접 조회한다. (느린 leader 때문에 실패하지 않게)
+ * - forget(key): 변경이 커밋된 뒤에는 진행 중인 조회에 합류하지 않도록 끊는다. (커밋 전에 시작한 조회 결과를 받지 않게)
+ *
+ * 계측: book.read.coalescing{operation, role=leader|follower|timeout}
+ */
+class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+    private final Counter leaders;
+    private final Counter followers;
+    private final Counter timeouts;
+
+    SingleFlight(String operation, Duration timeout, MeterRegistry meterRegistry) {
+        this.timeoutNanos = timeout.toNanos();
+        this.leaders = counter(meterRegistry, operation, "leader");
+        this.followers = counter(meterRegistry, operation, "follower");
+        this.timeouts = counter(meterRegistry, operation, "timeout");
+    }
+
+    V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> flight = flights.putIfAbsent(key, mine);
+        if (flight == null) {
+            leaders.increment();
+            try {
+                V value = loader.get();
+                mine.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                flights.remove(key, mine);
+            }
+        }
+
+        followers.increment();
+        try {
+            return flight.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookUnavailableException("조회가 중단되었습니다.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    void forget(K key) {
+        flights.remove(key);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String operation, String role) {
+        return Counter.builder("book.read.coalescing")
+                .description("identical in-flight reads: leader ran the query, follower shared its result")
+                .tag("operation", operation)
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+}
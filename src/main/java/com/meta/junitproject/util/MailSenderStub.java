@@ -1,13 +1,37 @@
 package com.meta.junitproject.util;
 
-import org.springframework.stereotype.Component;
-
-// 가짜 (mock를 몰라서 썼던 것임)
-//@Component
-//public class MailSenderStub implements MailSender {
-//
-//    @Override
-//    public boolean send() {
-//        return true;
-//    }
-//}
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 가짜 MailSender (로컬/테스트용)
+// latencyMillis 만큼 기다린 뒤 응답 -> 느린 메일 서버를 흉내낸다.
+public class MailSenderStub implements MailSender {
+
+    private final long latencyMillis;
+    private volatile boolean fail;
+    private final AtomicInteger sendCount = new AtomicInteger();
+
+    public MailSenderStub(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public boolean send() {
+        sendCount.incrementAndGet();
+        try {
+            TimeUnit.MILLISECONDS.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return !fail;
+    }
+
+    public void setFail(boolean fail) {
+        this.fail = fail;
+    }
+
+    public int getSendCount() {
+        return sendCount.get();
+    }
+}
@@ -1,20 +1,39 @@
 package com.meta.junitproject.web;
 
+import com.meta.junitproject.admission.ClientKeys;
+import com.meta.junitproject.domain.BookCatalogVersion;
+import com.meta.junitproject.domain.BookVersion;
+import com.meta.junitproject.service.BookBulkService;
+import com.meta.junitproject.service.BookReadCoalescer;
+import com.meta.junitproject.service.BookRegisterBuffer;
+import com.meta.junitproject.service.BookSearchIndex;
 import com.meta.junitproject.service.BookService;
+import com.meta.junitproject.service.BookVersionRegistry;
+import com.meta.junitproject.web.dto.response.BookBulkRespDto;
+import com.meta.junitproject.web.dto.response.BookDeleteRespDto;
 import com.meta.junitproject.web.dto.response.BookListRespDto;
 import com.meta.junitproject.web.dto.response.BookRespDto;
 import com.meta.junitproject.web.dto.request.BookSaveReqDto;
 import com.meta.junitproject.web.dto.response.CommonRespDto;
+import com.meta.junitproject.web.handler.ex.BookPreconditionFailedException;
+import com.meta.junitproject.web.handler.ex.BookValidationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
-import java.util.HashMap;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequiredArgsConstructor
@@ -22,27 +41,42 @@ public class BookApiController {
 
     // final field가 어떤 클래스에 결합되어 있을 때 컴포지션 = has 관계
     private final BookService bookService;
+    private final BookBulkService bookBulkService;
+    private final BookRegisterBuffer bookRegisterBuffer;
+    private final BookReadCoalescer bookReadCoalescer;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookVersionRegistry bookVersionRegistry;
+    private final BookListResponseCache bookListResponseCache;
+
+    @Value("${book.bulk.max-items:10000}")
+    private int bulkMaxItems;
+
+    @Value("${book.delete.max-items:1000}")
+    private int deleteMaxItems;
+
+    @Value("${book.admission.client-header:X-Client-Id}")
+    private String clientHeader; // Idempotency-Key를 클라이언트별로 나누는 기준 (ClientKeys)
 
     // 1. 책 등록
     // spring의 기본 parsing 전략; query string
     // json형식으로 받을 것임.
     @PostMapping("/api/v1/book")
-    public ResponseEntity<?> registerBook(@RequestBody @Valid BookSaveReqDto bookSaveReqDto, BindingResult bindingResult) {
+    public ResponseEntity<?> registerBook(@RequestBody @Valid BookSaveReqDto bookSaveReqDto, BindingResult bindingResult,
+                                          @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                          HttpServletRequest request) {
 
-        // AOP 처리하는 것이 좋음
+        // 400 응답은 GlobalExceptionHandler가 만든다. (필드별 에러는 errors, stack trace 없는 예외라 던지는 비용이 작다)
         if (bindingResult.hasErrors()) {
-            Map<String, String> errorMap = new HashMap<>();
-            for (FieldError fe: bindingResult.getFieldErrors()) {
-                errorMap.put(fe.getField(), fe.getDefaultMessage());
-            }
-            System.out.println("=========================");
-            System.out.println(errorMap);
-            System.out.println("=========================");
-
-            throw new RuntimeException(errorMap.toString());
+            throw validationFailed(bindingResult);
         }
 
-        BookRespDto bookRespDto = bookService.register_book(bookSaveReqDto);
+        // book.register.coalescing.enabled=true면 다른 등록 요청들과 한 트랜잭션으로 묶여 커밋된다.
+        // 재시도할 때 같은 Idempotency-Key를 보내면 두 번 저장되지 않는다. (키는 클라이언트별, 같은 키에 다른 내용이면 422)
+        BookRespDto bookRespDto = bookRegisterBuffer.register(bookSaveReqDto, ClientKeys.of(request, clientHeader), idempotencyKey);
+        if (bookRespDto == null) { // 커밋 중에 대기 시간 초과: 저장됐는지 아직 모름
+            return new ResponseEntity<>(CommonRespDto.builder().code(1).message("글 저장 처리 중").build(),
+                    HttpStatus.ACCEPTED); // 202 = 결과는 같은 Idempotency-Key로 다시 요청해서 받는다.
+        }
         return new ResponseEntity<>(CommonRespDto.builder().code(1).message("글 저장 성공").body(bookRespDto).build(),
                 HttpStatus.CREATED); // 201 = insert
     }
@@ -60,20 +94,84 @@ public class BookApiController {
                 HttpStatus.CREATED); // 201 = insert
     }
 
+    // 1-1. 책 일괄 등록
+    // 건별로 검증/저장 결과를 돌려준다. (일부 실패해도 나머지는 저장됨)
+    @PostMapping("/api/v1/books/bulk")
+    public ResponseEntity<?> registerBooks(@RequestBody List<BookSaveReqDto> bookSaveReqDtos) {
+        if (bookSaveReqDtos.size() > bulkMaxItems) {
+            throw new BookValidationException("한 번에 등록할 수 있는 최대 건수(" + bulkMaxItems + ")를 초과했습니다.");
+        }
+
+        BookBulkRespDto bookBulkRespDto = bookBulkService.register_books(bookSaveReqDtos);
+        return new ResponseEntity<>(CommonRespDto.builder().code(1).message("글 일괄 저장 완료").body(bookBulkRespDto).build(),
+                HttpStatus.OK); // 건별 결과가 섞여 있으므로 200
+    }
+
     // 2. 책 목록 보기
+    // after, limit 중 하나라도 있으면 keyset 페이징 (?after=<id>&limit=N), 다음 커서는 응답의 next
+    // 전체 목록은 목록 전체 버전(BookCatalogVersion)이 ETag, 바뀌지 않았으면 304 (DB 목록 조회, 직렬화 없음)
+    // 페이지 조회는 pk 인덱스로 limit건만 읽으므로 전체 집계(목록 버전)를 하지 않는다. (ETag 없음)
     @GetMapping("/api/v1/book")
-    public ResponseEntity<?> getBookList() {
-        BookListRespDto bookListRespDto = bookService.look_book_contents();
-        return new ResponseEntity<>(CommonRespDto.builder().code(1).message("글 목록보기 성공").body(bookListRespDto).build(),
-                HttpStatus.OK); // 200 = OK
+    public ResponseEntity<?> getBookList(@RequestParam(required = false) Long after,
+                                         @RequestParam(required = false) Integer limit,
+                                         WebRequest webRequest) {
+        if (after != null || limit != null) {
+            BookListRespDto bookPageRespDto = bookService.look_book_page(after, limit);
+            return new ResponseEntity<>(CommonRespDto.builder().code(1).message("글 목록보기 성공").body(bookPageRespDto)
+                    .next(bookPageRespDto.getNext()).build(), HttpStatus.OK);
+        }
+
+        BookCatalogVersion catalogVersion = bookVersionRegistry.catalog();
+        if (webRequest.checkNotModified(catalogVersion.getETag(), epochMillis(catalogVersion.getModifiedAt()))) {
+            return null; // 304 Not Modified (ETag, Last-Modified 헤더는 checkNotModified가 채운다)
+        }
+
+        // 목록이 바뀌지 않았으면 직렬화해 둔 바이트를 그대로 내려보낸다. (book.list.response-cache.enabled=true)
+        ResponseEntity<byte[]> cached = bookListResponseCache.respond(webRequest, catalogVersion, this::bookListResponse);
+        if (cached != null) {
+            return cached;
+        }
+        return new ResponseEntity<>(bookListResponse(), HttpStatus.OK); // 200 = OK
+    }
+
+    private CommonRespDto<BookListRespDto> bookListResponse() {
+        BookListRespDto bookListRespDto = bookReadCoalescer.look_book_contents(); // 동시에 온 같은 조회는 DB 조회 1번
+        return CommonRespDto.<BookListRespDto>builder().code(1).message("글 목록보기 성공").body(bookListRespDto).build();
+    }
+
+    // 2-2. 책 검색 (title, author)
+    // mode=prefix(기본): 단어가 q로 시작, mode=contains: q를 포함 / 초성(ㅈㅂ)도 가능
+    @GetMapping("/api/v1/book/search")
+    public ResponseEntity<?> searchBook(@RequestParam String q,
+                                        @RequestParam(required = false) Integer limit,
+                                        @RequestParam(defaultValue = "prefix") String mode) {
+        int size = (limit == null || limit < 1) ? BookService.DEFAULT_PAGE_SIZE : Math.min(limit, BookService.MAX_PAGE_SIZE);
+        BookSearchIndex.Mode searchMode = "contains".equalsIgnoreCase(mode) ? BookSearchIndex.Mode.CONTAINS : BookSearchIndex.Mode.PREFIX;
+
+        List<BookRespDto> bookRespDtos = bookSearchIndex.search(q, searchMode, size);
+        return new ResponseEntity<>(CommonRespDto.builder().code(1).message("글 검색 성공")
+                .body(BookListRespDto.builder().bookList(bookRespDtos).build()).build(), HttpStatus.OK);
     }
 
     // 3. 책 한 건 보기
+    // 조건부 요청이면 버전만 먼저 확인해서 같으면 304 (본문 조회, 직렬화 없음)
+    // 200 응답의 ETag는 실제 본문의 version으로 만든다.
     @GetMapping("/api/v1/book/{id}")
-    public ResponseEntity<?> getBookOne(@PathVariable Long id) {
-        BookRespDto bookRespDto = bookService.look_one_book(id);
-        return new ResponseEntity<>(CommonRespDto.builder().code(1).message("글 한 건 보기 성공").body(bookRespDto).build(),
-                HttpStatus.OK); // 200 = OK
+    public ResponseEntity<?> getBookOne(@PathVariable Long id, WebRequest webRequest) {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            Optional<BookVersion> versionOP = bookVersionRegistry.find(id);
+            if (versionOP.isPresent()
+                    && webRequest.checkNotModified(versionOP.get().getETag(), epochMillis(versionOP.get().getModifiedAt()))) {
+                return null; // 304 Not Modified
+            }
+        }
+
+        BookRespDto bookRespDto = bookReadCoalescer.look_one_book(id); // 동시에 온 같은 조회는 DB 조회 1번
+        BookVersion bookVersion = new BookVersion(bookRespDto.getId(), bookRespDto.getVersion(), bookRespDto.getModifiedAt());
+        return ResponseEntity.ok()
+                .eTag(bookVersion.getETag())
+                .lastModified(epochMillis(bookVersion.getModifiedAt()))
+                .body(CommonRespDto.builder().code(1).message("글 한 건 보기 성공").body(bookRespDto).build()); // 200 = OK
     }
 
     // 4. 책 삭제하기
@@ -84,25 +182,68 @@ public class BookApiController {
                 HttpStatus.OK); // No Content(204)는 메시지가 따라오지 않아서 ok 처리
     }
 
+    // 4-1. 책 일괄 삭제
+    // ?ids=1,2,3 또는 ?from=1&to=100 (from <= id <= to), 한 요청에 delete-max-items건까지
+    @DeleteMapping("/api/v1/books")
+    public ResponseEntity<?> deleteBooks(@RequestParam(required = false) List<Long> ids,
+                                         @RequestParam(required = false) Long from,
+                                         @RequestParam(required = false) Long to) {
+        int deleted;
+        if (ids != null && from == null && to == null) {
+            if (ids.isEmpty() || ids.size() > deleteMaxItems) {
+                throw new BookValidationException("ids는 1건 이상, 최대 " + deleteMaxItems + "건까지 삭제할 수 있습니다.");
+            }
+            deleted = bookService.delete_books(ids);
+        } else if (ids == null && from != null && to != null) {
+            // 0 <= from <= to를 먼저 확인해야 to - from이 overflow(음수)가 되어 상한을 통과하지 않는다.
+            if (from < 0 || from > to || to - from >= deleteMaxItems) {
+                throw new BookValidationException("0 <= from <= to 이고, 범위는 최대 " + deleteMaxItems + "건까지 삭제할 수 있습니다.");
+            }
+            deleted = bookService.delete_books_between(from, to);
+        } else {
+            throw new BookValidationException("ids 또는 from, to 중 하나만 입력해주세요.");
+        }
+
+        return new ResponseEntity<>(CommonRespDto.builder().code(1).message("글 일괄 삭제 성공")
+                .body(BookDeleteRespDto.builder().deleted(deleted).build()).build(), HttpStatus.OK);
+    }
+
     // 5. 책 수정하기
+    // If-Match(조회 때 받은 ETag)가 있으면 그 version일 때만 수정 (아니면 412), 없으면 최신 version에 덮어쓴다.
     @PutMapping("/api/v1/book/{id}")
     public ResponseEntity<?> updateBook(@PathVariable Long id, @RequestBody @Valid BookSaveReqDto bookSaveReqDto,
-                                        BindingResult bindingResult) {
-        // AOP 처리하는 것이 좋음
+                                        BindingResult bindingResult,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        // 400 응답은 GlobalExceptionHandler가 만든다. (필드별 에러는 errors, stack trace 없는 예외라 던지는 비용이 작다)
         if (bindingResult.hasErrors()) {
-            Map<String, String> errorMap = new HashMap<>();
-            for (FieldError fe: bindingResult.getFieldErrors()) {
-                errorMap.put(fe.getField(), fe.getDefaultMessage());
+            throw validationFailed(bindingResult);
+        }
+
+        BookRespDto bookRespDto;
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            bookRespDto = bookService.modify_book(id, bookSaveReqDto);
+        } else {
+            Long expectedVersion = BookVersion.parseVersion(id, ifMatch);
+            if (expectedVersion == null) {
+                throw new BookPreconditionFailedException("If-Match가 이 책의 ETag와 맞지 않습니다.");
             }
-            System.out.println("=========================");
-            System.out.println(errorMap);
-            System.out.println("=========================");
+            bookRespDto = bookService.modify_book(id, bookSaveReqDto, expectedVersion);
+        }
+        BookVersion bookVersion = new BookVersion(bookRespDto.getId(), bookRespDto.getVersion(), bookRespDto.getModifiedAt());
+        return ResponseEntity.ok()
+                .eTag(bookVersion.getETag())
+                .body(CommonRespDto.builder().code(1).message("글 수정하기 성공").body(bookRespDto).build());
+    }
 
-            throw new RuntimeException(errorMap.toString());
+    private BookValidationException validationFailed(BindingResult bindingResult) {
+        Map<String, String> errorMap = new LinkedHashMap<>();
+        for (FieldError fe : bindingResult.getFieldErrors()) {
+            errorMap.putIfAbsent(fe.getField(), fe.getDefaultMessage());
         }
+        return new BookValidationException("유효성 검사 실패", errorMap);
+    }
 
-        BookRespDto bookRespDto = bookService.modify_book(id, bookSaveReqDto);
-        return new ResponseEntity<>(CommonRespDto.builder().code(1).message("글 수정하기 성공").body(bookRespDto).build(),
-                HttpStatus.OK);
+    private long epochMillis(Instant instant) {
+        return instant == null ? -1 : instant.toEpochMilli();
     }
 }
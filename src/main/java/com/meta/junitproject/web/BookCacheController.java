@@ -0,0 +1,49 @@
+package com.meta.junitproject.web;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.meta.junitproject.config.CacheConfig;
+import com.meta.junitproject.web.dto.response.BookCacheStatsRespDto;
+import com.meta.junitproject.web.dto.response.CommonRespDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class BookCacheController {
+
+    private final CacheManager cacheManager;
+
+    // 책 한 건 캐시 hit/miss/eviction 카운터
+    @GetMapping("/api/v1/book/cache/stats")
+    public ResponseEntity<?> getCacheStats() {
+        Cache cache = cacheManager.getCache(CacheConfig.BOOK_CACHE);
+        if (cache instanceof TransactionAwareCacheDecorator) {
+            cache = ((TransactionAwareCacheDecorator) cache).getTargetCache();
+        }
+
+        BookCacheStatsRespDto statsRespDto;
+        if (cache instanceof CaffeineCache) {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = ((CaffeineCache) cache).getNativeCache();
+            CacheStats stats = nativeCache.stats();
+            statsRespDto = BookCacheStatsRespDto.builder()
+                    .enabled(true)
+                    .size(nativeCache.estimatedSize())
+                    .hitCount(stats.hitCount())
+                    .missCount(stats.missCount())
+                    .evictionCount(stats.evictionCount())
+                    .hitRate(stats.hitRate())
+                    .build();
+        } else {
+            statsRespDto = BookCacheStatsRespDto.builder().enabled(false).build();
+        }
+        return new ResponseEntity<>(CommonRespDto.builder().code(1).message("캐시 통계 보기 성공").body(statsRespDto).build(),
+                HttpStatus.OK);
+    }
+}
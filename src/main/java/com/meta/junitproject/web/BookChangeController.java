@@ -0,0 +1,63 @@
+package com.meta.junitproject.web;
+
+import com.meta.junitproject.service.BookChangeFeed;
+import com.meta.junitproject.web.dto.response.BookChangeListRespDto;
+import com.meta.junitproject.web.dto.response.CommonRespDto;
+import com.meta.junitproject.web.handler.ex.BookValidationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+
+/**
+ * 하위 시스템용 책 변경 내역 (전체 목록을 주기적으로 다시 받는 대신 바뀐 것만)
+ * GET /api/v1/book/changes?since=<마지막으로 받은 seq>&limit=N&wait=<초>
+ * - 응답의 next를 다음 요청의 since로 쓴다. (처음에는 since=0: 보관 중인 가장 오래된 내역부터)
+ * - 새 내역이 없으면 wait초까지 기다렸다가(long-poll) 생기는 즉시 응답, 끝까지 없으면 빈 목록 (wait=0이면 바로 응답)
+ * - since 이후 내역이 보관 기간(retention)이 지나 지워졌으면 410
+ * 기다리는 동안 요청 스레드와 DB 커넥션은 잡지 않는다. (DeferredResult)
+ */
+@RestController
+@RequiredArgsConstructor
+public class BookChangeController {
+
+    private final BookChangeFeed bookChangeFeed;
+
+    @Value("${book.changes.max-batch:1000}")
+    private int maxBatch;
+
+    @Value("${book.changes.max-wait:60s}")
+    private Duration maxWait;
+
+    @GetMapping("/api/v1/book/changes")
+    public DeferredResult<ResponseEntity<?>> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                        @RequestParam(defaultValue = "100") int limit,
+                                                        @RequestParam(defaultValue = "30") long wait) {
+        if (since < 0 || limit < 1 || limit > maxBatch || wait < 0 || wait > maxWait.getSeconds()) {
+            throw new BookValidationException("since >= 0, 1 <= limit <= " + maxBatch + ", 0 <= wait <= " + maxWait.getSeconds() + " 이어야 합니다.");
+        }
+
+        BookChangeListRespDto changes = bookChangeFeed.read(since, limit);
+        if (!changes.getItems().isEmpty() || wait == 0) {
+            DeferredResult<ResponseEntity<?>> result = new DeferredResult<>();
+            result.setResult(ok(changes));
+            return result;
+        }
+
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(Duration.ofSeconds(wait).toMillis());
+        result.onTimeout(() -> result.setResult(ok(changes))); // 끝까지 없으면 빈 목록 (next = since)
+        bookChangeFeed.subscribe(since, limit, result, found -> result.setResult(ok(found)));
+        return result;
+    }
+
+    private ResponseEntity<?> ok(BookChangeListRespDto changes) {
+        return new ResponseEntity<>(CommonRespDto.builder().code(1).message("변경 내역 보기 성공").body(changes)
+                .next(changes.getNext()).build(), HttpStatus.OK);
+    }
+}
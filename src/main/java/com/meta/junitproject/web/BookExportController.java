@@ -0,0 +1,54 @@
+package com.meta.junitproject.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.meta.junitproject.service.BookService;
+import com.meta.junitproject.web.json.BookJsonWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * 야간 동기화용 전체 목록 내보내기.
+ * 목록을 메모리에 모으지 않고 DB 커서 -> 응답 스트림으로 한 줄(json 1건)씩 흘려보낸다. (NDJSON)
+ * StreamingResponseBody는 별도 스레드에서 실행되므로 트랜잭션은 BookService.export_books 안에서 열린다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class BookExportController {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final BookService bookService;
+    private final ObjectMapper om;
+
+    @GetMapping("/api/v1/book/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        // 엔티티를 dto로 바꾸지 않고 generator에 바로 쓴다. (BookJsonWriter, 건마다 flush 하지 않음)
+        SerializerProvider provider = om.getSerializerProviderInstance();
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = om.getFactory().createGenerator(out)) {
+                gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                gen.setRootValueSeparator(null);
+                bookService.export_books(bookPS -> {
+                    try {
+                        BookJsonWriter.write(gen, provider, bookPS);
+                        gen.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.status(HttpStatus.OK).contentType(APPLICATION_NDJSON).body(body);
+    }
+}
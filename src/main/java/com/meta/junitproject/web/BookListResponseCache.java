@@ -0,0 +1,234 @@
+package com.meta.junitproject.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meta.junitproject.domain.BookCatalogVersion;
+import com.meta.junitproject.service.BookChangedEvent;
+import com.meta.junitproject.web.dto.response.BookListRespDto;
+import com.meta.junitproject.web.dto.response.CommonRespDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 전체 목록(GET /api/v1/book) 응답 바이트 캐시, book.list.response-cache.enabled=true일 때만 동작
+ * 1. 응답 형식(json/cbor/smile)마다 직렬화한 바이트를 하나씩 들고 있다가 그대로 내려보낸다. (Jackson 직렬화 없음)
+ * 2. gzip을 받는 요청이면 압축한 바이트도 한 번만 만들어 같이 들고 있는다. (톰캣이 매번 압축하지 않음)
+ * 3. 이 인스턴스에서 커밋된 변경이 있으면(generation 증가) 버리고, 다른 인스턴스의 변경은 목록 ETag가 바뀌면 버린다.
+ *    (BookVersionRegistry의 expire-after-write 이내)
+ * 4. 저장할 때의 ETag는 직렬화한 목록에서 계산한다. (요청의 목록 버전은 본문과 다른 replica에서 읽었을 수 있으므로,
+ *    지연된 replica의 본문이 최신 ETag로 저장되면 다음 로컬 쓰기까지 옛 목록이 200/304로 나간다.)
+ * 받을 수 없는 Accept(406 등)면 null을 돌려주고 컨트롤러가 원래대로 응답한다.
+ *
+ * 계측: book.list.response.cache{result=hit|miss}, book.list.response.cache.hit.ratio,
+ *       book.list.response.cache.served{encoding} (캐시에서 내보낸 바이트)
+ */
+@Component
+public class BookListResponseCache {
+
+    private static final String GZIP = "gzip";
+
+    private final boolean enabled;
+    private final boolean compression;
+    private final long compressionMinSize;
+    private final long maxBytes;
+    private final List<Variant> variants; // Accept가 */*면 첫 번째(json), 메시지 컨버터 순서와 같다.
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter identityBytes;
+    private final Counter gzipBytes;
+
+    public BookListResponseCache(ObjectMapper objectMapper,
+                                 MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter,
+                                 MappingJackson2CborHttpMessageConverter cborHttpMessageConverter,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${book.list.response-cache.enabled:false}") boolean enabled,
+                                 @Value("${book.list.response-cache.max-bytes:16MB}") DataSize maxBytes,
+                                 @Value("${server.compression.enabled:false}") boolean compression,
+                                 @Value("${server.compression.min-response-size:2KB}") DataSize compressionMinSize) {
+        this.enabled = enabled;
+        this.compression = compression;
+        this.compressionMinSize = compressionMinSize.toBytes();
+        this.maxBytes = maxBytes.toBytes();
+        this.variants = List.of(
+                new Variant(MediaType.APPLICATION_JSON, objectMapper),
+                new Variant(MediaType.valueOf("application/x-jackson-smile"), smileHttpMessageConverter.getObjectMapper()),
+                new Variant(MediaType.valueOf("application/cbor"), cborHttpMessageConverter.getObjectMapper()));
+
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.identityBytes = served(meterRegistry, "identity");
+        this.gzipBytes = served(meterRegistry, GZIP);
+        Gauge.builder("book.list.response.cache.hit.ratio", this, cache -> {
+                    double total = cache.hits.count() + cache.misses.count();
+                    return total == 0 ? 0 : cache.hits.count() / total;
+                })
+                .description("share of full-list responses served from cached bytes")
+                .register(meterRegistry);
+    }
+
+    // 캐시된 바이트로 응답 (없으면 response로 만들어 저장), 캐시를 쓸 수 없는 요청이면 null
+    public ResponseEntity<byte[]> respond(WebRequest webRequest, BookCatalogVersion catalogVersion,
+                                          Supplier<CommonRespDto<BookListRespDto>> response) {
+        if (!enabled) {
+            return null;
+        }
+        Variant variant = select(webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (variant == null) {
+            return null;
+        }
+
+        String eTag = catalogVersion.getETag();
+        long loadingGeneration = generation.get();
+        Entry entry = variant.entry;
+        if (entry != null && entry.generation == loadingGeneration && entry.eTag.equals(eTag)) {
+            hits.increment();
+        } else {
+            misses.increment();
+            CommonRespDto<BookListRespDto> loaded = response.get();
+            String loadedETag = BookCatalogVersion.of(loaded.getBody().getItems()).getETag(); // 본문과 같은 조회
+            entry = new Entry(loadingGeneration, loadedETag, serialize(variant.objectMapper, loaded));
+            // 조회/직렬화하는 동안 커밋된 변경이 있었으면 generation이 달라서 다음 요청이 쓰지 않는다.
+            if (entry.identity.length <= maxBytes) {
+                variant.entry = entry;
+            }
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentType(variant.mediaType);
+        byte[] body = entry.identity;
+        if (compression) {
+            builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (body.length >= compressionMinSize && acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+                body = entry.gzip();
+                builder.header(HttpHeaders.CONTENT_ENCODING, GZIP); // 톰캣은 Content-Encoding이 있으면 다시 압축하지 않는다.
+                gzipBytes.increment(body.length);
+            } else {
+                identityBytes.increment(body.length);
+            }
+        } else {
+            identityBytes.increment(body.length);
+        }
+        return builder.contentLength(body.length).body(body);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        generation.incrementAndGet();
+        for (Variant variant : variants) {
+            variant.entry = null;
+        }
+    }
+
+    // Accept 순서(q, 구체적인 것 우선)대로 처음 맞는 형식, 맞는 게 없으면 null
+    private Variant select(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return variants.get(0);
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            for (Variant variant : variants) {
+                if (mediaType.isCompatibleWith(variant.mediaType)) {
+                    return variant;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.contains(GZIP);
+    }
+
+    private static byte[] serialize(ObjectMapper objectMapper, CommonRespDto<?> response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("book.list.response.cache")
+                .description("full-list responses by response byte cache result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter served(MeterRegistry meterRegistry, String encoding) {
+        return Counter.builder("book.list.response.cache.served")
+                .description("full-list response bytes written from the response byte cache")
+                .baseUnit("bytes")
+                .tag("encoding", encoding)
+                .register(meterRegistry);
+    }
+
+    private static class Variant {
+        private final MediaType mediaType;
+        private final ObjectMapper objectMapper;
+        private volatile Entry entry;
+
+        private Variant(MediaType mediaType, ObjectMapper objectMapper) {
+            this.mediaType = mediaType;
+            this.objectMapper = objectMapper;
+        }
+    }
+
+    private static class Entry {
+        private final long generation;
+        private final String eTag;
+        private final byte[] identity;
+        private volatile byte[] gzipped; // 처음 gzip 요청이 올 때 만든다. (동시에 만들어도 결과는 같음)
+
+        private Entry(long generation, String eTag, byte[] identity) {
+            this.generation = generation;
+            this.eTag = eTag;
+            this.identity = identity;
+        }
+
+        private byte[] gzip() {
+            byte[] result = gzipped;
+            if (result == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(identity.length / 4 + 64);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(identity);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                result = out.toByteArray();
+                gzipped = result;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.meta.junitproject.web.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+public class BookBulkItemRespDto {
+    private Integer index; // 요청 배열에서의 위치
+    private Boolean success;
+    private BookRespDto book; // 성공 시 저장된 책
+    private Map<String, String> errors; // 실패 시 필드별(또는 "global") 에러 메시지
+
+    @Builder
+    public BookBulkItemRespDto(Integer index, Boolean success, BookRespDto book, Map<String, String> errors) {
+        this.index = index;
+        this.success = success;
+        this.book = book;
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,22 @@
+package com.meta.junitproject.web.dto.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class BookBulkRespDto {
+    private Integer total;
+    private Integer saved;
+    private Integer failed;
+    private List<BookBulkItemRespDto> items;
+
+    @Builder
+    public BookBulkRespDto(List<BookBulkItemRespDto> items) {
+        this.items = items;
+        this.total = items.size();
+        this.saved = (int) items.stream().filter(BookBulkItemRespDto::getSuccess).count();
+        this.failed = total - saved;
+    }
+}
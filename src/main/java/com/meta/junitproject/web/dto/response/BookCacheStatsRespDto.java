@@ -0,0 +1,24 @@
+package com.meta.junitproject.web.dto.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+public class BookCacheStatsRespDto {
+    private Boolean enabled;
+    private Long size;
+    private Long hitCount;
+    private Long missCount;
+    private Long evictionCount;
+    private Double hitRate;
+
+    @Builder
+    public BookCacheStatsRespDto(Boolean enabled, Long size, Long hitCount, Long missCount, Long evictionCount, Double hitRate) {
+        this.enabled = enabled;
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.hitRate = hitRate;
+    }
+}
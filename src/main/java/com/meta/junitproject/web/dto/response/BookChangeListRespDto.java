@@ -0,0 +1,22 @@
+package com.meta.junitproject.web.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class BookChangeListRespDto {
+    List<BookChangeRespDto> items;
+
+    // 다음 요청의 since (받은 내역이 없으면 요청한 since 그대로), 응답 시에는 CommonRespDto.next로 내려간다.
+    @JsonIgnore
+    Long next;
+
+    @Builder
+    public BookChangeListRespDto(List<BookChangeRespDto> changes, Long next) {
+        this.items = changes;
+        this.next = next;
+    }
+}
@@ -0,0 +1,30 @@
+package com.meta.junitproject.web.dto.response;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@NoArgsConstructor
+@Getter
+public class BookChangeRespDto {
+    private Long seq; // 다음 요청의 since
+    private String type; // CREATED, UPDATED, DELETED
+    private Long bookId;
+    private Long version; // 변경 후 값 (DELETED면 null)
+    private String title;
+    private String author;
+    private Instant changedAt;
+
+    @Builder
+    public BookChangeRespDto(Long seq, String type, Long bookId, Long version, String title, String author, Instant changedAt) {
+        this.seq = seq;
+        this.type = type;
+        this.bookId = bookId;
+        this.version = version;
+        this.title = title;
+        this.author = author;
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,14 @@
+package com.meta.junitproject.web.dto.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+public class BookDeleteRespDto {
+    private Integer deleted; // 실제 삭제된 건수 (없는 id는 제외)
+
+    @Builder
+    public BookDeleteRespDto(Integer deleted) {
+        this.deleted = deleted;
+    }
+}
@@ -1,5 +1,6 @@
 package com.meta.junitproject.web.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 import lombok.Getter;
 
@@ -9,8 +10,13 @@ import java.util.List;
 public class BookListRespDto {
     List<BookRespDto> items;
 
+    // 다음 페이지 커서 (마지막 페이지면 null), 응답 시에는 CommonRespDto.next로 내려간다.
+    @JsonIgnore
+    Long next;
+
     @Builder
-    public BookListRespDto(List<BookRespDto> bookList) {
+    public BookListRespDto(List<BookRespDto> bookList, Long next) {
         this.items = bookList;
+        this.next = next;
     }
 }
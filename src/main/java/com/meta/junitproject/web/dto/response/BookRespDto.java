@@ -4,17 +4,23 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @NoArgsConstructor
 @Getter
 public class BookRespDto {
     private Long id;
     private String title;
     private String author;
+    private Long version; // If-Match / ETag 비교용
+    private Instant modifiedAt;
 
     @Builder
-    public BookRespDto(Long id, String title, String author) {
+    public BookRespDto(Long id, String title, String author, Long version, Instant modifiedAt) {
         this.id = id;
         this.title = title;
         this.author = author;
+        this.version = version;
+        this.modifiedAt = modifiedAt;
     }
 }
@@ -0,0 +1,25 @@
+package com.meta.junitproject.web.dto.response;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 책 한 건마다 dto 객체를 들고 있지 않는 목록 (BookListRespDto.items, 예: 메모리 스냅샷의 열 배열)
+ * get(i)는 그때그때 dto를 만들고, 직렬화(BookJsonModule)는 dto 없이 아래 접근자로 바로 쓴다.
+ */
+public interface BookRows extends List<BookRespDto> {
+
+    long id(int index);
+
+    String title(int index);
+
+    String author(int index);
+
+    // version이 없으면(null) false
+    boolean hasVersion(int index);
+
+    long version(int index);
+
+    // 없으면 null
+    Instant modifiedAt(int index);
+}
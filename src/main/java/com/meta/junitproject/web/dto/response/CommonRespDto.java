@@ -1,18 +1,29 @@
 package com.meta.junitproject.web.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Getter;
 
+import java.util.Map;
+
 @Getter
 public class CommonRespDto<T> {
     private Integer code; // 1 성공, -1 실패
     private String message; // 에러 메시지, 성공에 대한 메시지
     private T body;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long next; // 페이징 응답일 때만 사용하는 다음 커서(after 값)
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, String> errors; // 유효성 검사 실패일 때만 사용 (field -> message)
+
     @Builder
-    public CommonRespDto(Integer code, String message, T body) {
+    public CommonRespDto(Integer code, String message, T body, Long next, Map<String, String> errors) {
         this.code = code;
         this.message = message;
         this.body = body;
+        this.next = next;
+        this.errors = errors;
     }
 }
@@ -1,16 +1,51 @@
 package com.meta.junitproject.web.handler;
 
 import com.meta.junitproject.web.dto.response.CommonRespDto;
+import com.meta.junitproject.web.handler.ex.BookApiException;
+import com.meta.junitproject.web.handler.ex.BookValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.TypeMismatchException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+@Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    // 예상된 API 에러: 404, 400(+ 필드 에러), 409, 412, 422, 503
+    @ExceptionHandler(BookApiException.class)
+    public ResponseEntity<?> bookApiException(BookApiException e) {
+        CommonRespDto.CommonRespDtoBuilder<Object> builder = CommonRespDto.builder().code(-1).message(e.getMessage());
+        if (e instanceof BookValidationException) {
+            builder.errors(((BookValidationException) e).getErrors());
+        }
+        return new ResponseEntity<>(builder.build(), e.getStatus());
+    }
+
+    // 엔티티 @Version 검사에서 충돌한 경우 409 (예외 메시지에는 엔티티 클래스, id가 들어 있어서 내보내지 않는다.)
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<?> conflictException(ObjectOptimisticLockingFailureException e) {
+        return new ResponseEntity<>(CommonRespDto.builder().code(-1).message("다른 요청과 충돌했습니다. 다시 조회한 뒤 시도해주세요.").build(),
+                HttpStatus.CONFLICT);
+    }
+
+    // 읽을 수 없는 본문(json 형식 오류), 타입이 맞지 않는 파라미터(?after=abc) -> 클라이언트 잘못이라 400
+    @ExceptionHandler({HttpMessageNotReadableException.class, TypeMismatchException.class})
+    public ResponseEntity<?> badRequestException(RuntimeException e) {
+        return new ResponseEntity<>(CommonRespDto.builder().code(-1).message("요청 형식이 올바르지 않습니다.").build(),
+                HttpStatus.BAD_REQUEST);
+    }
+
+    // 예상하지 못한 에러(DB 오류, NPE 등)는 서버 잘못이라 500
+    // 메시지에 SQL, 내부 클래스 이름 등이 들어 있을 수 있으므로 응답에는 고정 문구만 쓰고 원인은 로그로 남긴다.
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<?> apiException(RuntimeException e) {
-        return new ResponseEntity<>(CommonRespDto.builder().code(-1).message(e.getMessage()).build(), HttpStatus.BAD_REQUEST);
+        log.error("처리하지 못한 예외", e);
+        return new ResponseEntity<>(CommonRespDto.builder().code(-1).message("서버 오류가 발생했습니다. 잠시 후 다시 시도해주세요.").build(),
+                HttpStatus.INTERNAL_SERVER_ERROR);
     }
 }
@@ -0,0 +1,19 @@
+package com.meta.junitproject.web.handler.ex;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * API 에러 (GlobalExceptionHandler가 status로 응답한다.)
+ * 예상된 에러(없는 id, 충돌 등)라 stack trace가 필요 없다. -> 만들 때 stack trace를 채우지 않는다. (fillInStackTrace 비용 없음)
+ */
+@Getter
+public abstract class BookApiException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    protected BookApiException(HttpStatus status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+}
@@ -0,0 +1,13 @@
+package com.meta.junitproject.web.handler.ex;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * since 이후 내역 일부가 retention으로 이미 지워짐 -> 410 (소비자는 export로 전체를 다시 받은 뒤 최신 seq부터 이어간다.)
+ */
+public class BookChangesExpiredException extends BookApiException {
+
+    public BookChangesExpiredException(String message) {
+        super(HttpStatus.GONE, message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.meta.junitproject.web.handler.ex;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 동시에 들어온 다른 수정과 충돌 (재시도를 다 써도 version이 계속 바뀜) -> 409
+ */
+public class BookConflictException extends BookApiException {
+
+    public BookConflictException(String message) {
+        super(HttpStatus.CONFLICT, message);
+    }
+}
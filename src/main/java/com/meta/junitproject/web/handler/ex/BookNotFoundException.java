@@ -0,0 +1,13 @@
+package com.meta.junitproject.web.handler.ex;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 없는(또는 삭제된) 책 -> 404
+ */
+public class BookNotFoundException extends BookApiException {
+
+    public BookNotFoundException() {
+        super(HttpStatus.NOT_FOUND, "해당 아이디를 찾을 수 없습니다.");
+    }
+}
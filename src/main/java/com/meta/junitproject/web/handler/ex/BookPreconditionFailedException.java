@@ -0,0 +1,13 @@
+package com.meta.junitproject.web.handler.ex;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * If-Match로 보낸 version이 현재 version과 다름 (클라이언트가 본 뒤에 다른 요청이 수정함) -> 412
+ */
+public class BookPreconditionFailedException extends BookApiException {
+
+    public BookPreconditionFailedException(String message) {
+        super(HttpStatus.PRECONDITION_FAILED, message);
+    }
+}
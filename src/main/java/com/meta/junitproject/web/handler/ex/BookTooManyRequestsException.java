@@ -0,0 +1,13 @@
+package com.meta.junitproject.web.handler.ex;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 클라이언트별 요청 한도 초과 -> 429 (Retry-After 헤더는 BookAdmissionInterceptor가 붙인다.)
+ */
+public class BookTooManyRequestsException extends BookApiException {
+
+    public BookTooManyRequestsException(String message) {
+        super(HttpStatus.TOO_MANY_REQUESTS, message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.meta.junitproject.web.handler.ex;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 서버가 지금 요청을 받을 수 없음 (등록 버퍼가 꽉 참 등), 잠시 후 재시도 -> 503
+ */
+public class BookUnavailableException extends BookApiException {
+
+    public BookUnavailableException(String message) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.meta.junitproject.web.handler.ex;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 형식은 맞지만 처리할 수 없는 요청 (같은 Idempotency-Key를 다른 내용의 등록에 다시 씀) -> 422
+ */
+public class BookUnprocessableException extends BookApiException {
+
+    public BookUnprocessableException(String message) {
+        super(HttpStatus.UNPROCESSABLE_ENTITY, message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.meta.junitproject.web.handler.ex;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.util.Map;
+
+/**
+ * 잘못된 요청 값 -> 400, 필드별 에러는 errors (field -> message)
+ */
+@Getter
+public class BookValidationException extends BookApiException {
+
+    private final Map<String, String> errors;
+
+    public BookValidationException(String message) {
+        this(message, null);
+    }
+
+    public BookValidationException(String message, Map<String, String> errors) {
+        super(HttpStatus.BAD_REQUEST, message);
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,115 @@
+package com.meta.junitproject.web.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.meta.junitproject.web.dto.response.BookListRespDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import com.meta.junitproject.web.dto.response.BookRows;
+import com.meta.junitproject.web.dto.response.CommonRespDto;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 응답 dto 전용 직렬화기 (BeanSerializer 대신, 필드 순서/null 처리는 기존 json과 같다)
+ * - BookRespDto: BookJsonWriter
+ * - BookListRespDto: {"items":[...]}, items가 BookRows면 dto를 만들지 않고 열에서 바로 쓴다. (next는 @JsonIgnore)
+ * - CommonRespDto: {"code","message","body"} + next, errors는 null이 아닐 때만 (@JsonInclude NON_NULL)
+ * Module bean으로 등록하면 spring boot가 json, cbor, smile ObjectMapper 모두에 넣는다. (WireFormatConfig)
+ */
+public class BookJsonModule extends SimpleModule {
+
+    private static final SerializedString ITEMS = new SerializedString("items");
+    private static final SerializedString CODE = new SerializedString("code");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString BODY = new SerializedString("body");
+    private static final SerializedString NEXT = new SerializedString("next");
+    private static final SerializedString ERRORS = new SerializedString("errors");
+
+    public BookJsonModule() {
+        super("BookJsonModule");
+        addSerializer(BookRespDto.class, new BookRespDtoSerializer());
+        addSerializer(BookListRespDto.class, new BookListRespDtoSerializer());
+        addSerializer(CommonRespDto.class, new CommonRespDtoSerializer());
+    }
+
+    static class BookRespDtoSerializer extends StdSerializer<BookRespDto> {
+
+        BookRespDtoSerializer() {
+            super(BookRespDto.class);
+        }
+
+        @Override
+        public void serialize(BookRespDto value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            BookJsonWriter.write(gen, provider, value);
+        }
+    }
+
+    static class BookListRespDtoSerializer extends StdSerializer<BookListRespDto> {
+
+        BookListRespDtoSerializer() {
+            super(BookListRespDto.class);
+        }
+
+        @Override
+        public void serialize(BookListRespDto value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            List<BookRespDto> items = value.getItems();
+            gen.writeStartObject();
+            gen.writeFieldName(ITEMS);
+            if (items == null) {
+                gen.writeNull();
+            } else if (items instanceof BookRows) {
+                BookRows rows = (BookRows) items;
+                int size = rows.size();
+                gen.writeStartArray(rows, size);
+                for (int i = 0; i < size; i++) {
+                    BookJsonWriter.write(gen, provider, rows, i);
+                }
+                gen.writeEndArray();
+            } else {
+                gen.writeStartArray(items, items.size());
+                for (BookRespDto item : items) {
+                    BookJsonWriter.write(gen, provider, item);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    // body는 타입이 여러 가지라 provider가 찾은 직렬화기로 쓴다. (BookRespDto, BookListRespDto면 위의 직렬화기)
+    @SuppressWarnings("rawtypes")
+    static class CommonRespDtoSerializer extends StdSerializer<CommonRespDto> {
+
+        CommonRespDtoSerializer() {
+            super(CommonRespDto.class);
+        }
+
+        @Override
+        public void serialize(CommonRespDto value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeFieldName(CODE);
+            if (value.getCode() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(value.getCode());
+            }
+            gen.writeFieldName(MESSAGE);
+            gen.writeString(value.getMessage());
+            gen.writeFieldName(BODY);
+            provider.defaultSerializeValue(value.getBody(), gen);
+            if (value.getNext() != null) {
+                gen.writeFieldName(NEXT);
+                gen.writeNumber(value.getNext());
+            }
+            if (value.getErrors() != null) {
+                gen.writeFieldName(ERRORS);
+                provider.defaultSerializeValue(value.getErrors(), gen);
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.meta.junitproject.web.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.meta.junitproject.domain.Book;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import com.meta.junitproject.web.dto.response.BookRows;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * 책 한 건을 JsonGenerator에 바로 쓴다. (reflection, bean introspection 없음)
+ * dto, 엔티티, 열(BookRows) 어디서 오든 BookRespDto를 Jackson으로 직렬화한 것과 같은 모양이다.
+ * {"id":1,"title":"..","author":"..","version":0,"modifiedAt":"2022-08-01T00:00:00Z"}
+ *
+ * modifiedAt만 provider에서 찾은 Instant 직렬화기로 쓴다. (spring.jackson 날짜 설정을 그대로 따른다)
+ * 필드명은 미리 인코딩해 둔 SerializedString이라 json이면 바이트를 그대로 복사한다.
+ */
+public final class BookJsonWriter {
+
+    static final SerializedString ID = new SerializedString("id");
+    static final SerializedString TITLE = new SerializedString("title");
+    static final SerializedString AUTHOR = new SerializedString("author");
+    static final SerializedString VERSION = new SerializedString("version");
+    static final SerializedString MODIFIED_AT = new SerializedString("modifiedAt");
+
+    private BookJsonWriter() {
+    }
+
+    public static void write(JsonGenerator gen, SerializerProvider provider, BookRespDto book) throws IOException {
+        if (book == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        writeNumber(gen, ID, book.getId());
+        writeString(gen, TITLE, book.getTitle());
+        writeString(gen, AUTHOR, book.getAuthor());
+        writeNumber(gen, VERSION, book.getVersion());
+        writeInstant(gen, provider, book.getModifiedAt());
+        gen.writeEndObject();
+    }
+
+    // 엔티티에서 바로 (트랜잭션 안에서 호출, 연관관계가 없어 lazy loading 없음)
+    public static void write(JsonGenerator gen, SerializerProvider provider, Book book) throws IOException {
+        gen.writeStartObject();
+        writeNumber(gen, ID, book.getId());
+        writeString(gen, TITLE, book.getTitle());
+        writeString(gen, AUTHOR, book.getAuthor());
+        gen.writeFieldName(VERSION);
+        gen.writeNumber(book.getVersion());
+        writeInstant(gen, provider, book.getModifiedAt());
+        gen.writeEndObject();
+    }
+
+    public static void write(JsonGenerator gen, SerializerProvider provider, BookRows rows, int index) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(ID);
+        gen.writeNumber(rows.id(index));
+        writeString(gen, TITLE, rows.title(index));
+        writeString(gen, AUTHOR, rows.author(index));
+        gen.writeFieldName(VERSION);
+        if (rows.hasVersion(index)) {
+            gen.writeNumber(rows.version(index));
+        } else {
+            gen.writeNull();
+        }
+        writeInstant(gen, provider, rows.modifiedAt(index));
+        gen.writeEndObject();
+    }
+
+    private static void writeNumber(JsonGenerator gen, SerializedString name, Long value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    private static void writeString(JsonGenerator gen, SerializedString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        gen.writeString(value); // null이면 null
+    }
+
+    private static void writeInstant(JsonGenerator gen, SerializerProvider provider, Instant value) throws IOException {
+        gen.writeFieldName(MODIFIED_AT);
+        provider.defaultSerializeValue(value, gen); // null이면 null
+    }
+}
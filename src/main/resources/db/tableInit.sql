@@ -1,8 +1,30 @@
 drop table if exists Book;
 
+-- id는 book_seq(hibernate가 생성)에서 할당받는다.
 create table Book (
-   id bigint generated by default as identity,
+   id bigint not null,
    author varchar(20) not null,
    title varchar(50) not null,
+   version bigint not null,
+   modifiedAt timestamp not null,
+   deleted boolean not null,
    primary key (id)
-);
\ No newline at end of file
+);
+
+create index idx_book_deleted_modified on Book (deleted, modifiedAt);
+
+drop table if exists MailOutbox;
+
+-- id는 mail_outbox_seq(hibernate가 생성)에서 할당받는다.
+create table MailOutbox (
+   id bigint not null,
+   bookId bigint not null,
+   status varchar(10) not null,
+   attempts integer not null,
+   nextAttemptAt timestamp not null,
+   sentAt timestamp,
+   claimToken varchar(36),
+   primary key (id)
+);
+
+create index idx_mail_outbox_status_next on MailOutbox (status, nextAttemptAt);
@@ -0,0 +1,63 @@
+package com.meta.junitproject.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void limit_test() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, THRESHOLD, 0.5);
+
+        // when
+        boolean first = limiter.tryAcquire();
+        boolean second = limiter.tryAcquire();
+        boolean third = limiter.tryAcquire();
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(limiter.getInflight()).isEqualTo(2);
+    }
+
+    @Test
+    public void decrease_on_slow_response_test() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 10, THRESHOLD, 0.5);
+        long now = TimeUnit.SECONDS.toNanos(10);
+
+        // when (느린 응답 두 건이 threshold 안에 연달아 오면 한 번만 줄인다)
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.release(THRESHOLD * 2, now);
+        limiter.release(THRESHOLD * 2, now + 1);
+
+        // then
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        assertThat(limiter.getInflight()).isZero();
+    }
+
+    @Test
+    public void increase_on_fast_response_test() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, THRESHOLD, 0.5);
+
+        // when (limit을 다 쓰는 동안 빠른 응답이 limit개 오면 +1)
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(THRESHOLD / 2, i);
+            limiter.release(THRESHOLD / 2, i);
+        }
+
+        // then
+        assertThat(limiter.getLimit()).isGreaterThan(2);
+    }
+}
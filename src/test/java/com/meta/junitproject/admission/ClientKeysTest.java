@@ -0,0 +1,52 @@
+package com.meta.junitproject.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClientKeysTest {
+
+    private static final String HEADER = "X-Client-Id";
+
+    @Test
+    public void untrusted_header_ignored_test() {
+        // given (요청마다 X-Client-Id를 바꿔 보내는 클라이언트)
+        MockHttpServletRequest first = request("203.0.113.7", "random-1");
+        MockHttpServletRequest second = request("203.0.113.7", "random-2");
+
+        // when
+        String firstKey = ClientKeys.forRateLimit(first, HEADER, Set.of("10.0.0.1"));
+        String secondKey = ClientKeys.forRateLimit(second, HEADER, Set.of("10.0.0.1"));
+
+        // then (같은 버킷)
+        assertThat(firstKey).isEqualTo("203.0.113.7");
+        assertThat(secondKey).isEqualTo(firstKey);
+    }
+
+    @Test
+    public void trusted_header_used_test() {
+        // given (내부 gateway가 붙여 보낸 클라이언트 id)
+        MockHttpServletRequest request = request("10.0.0.1", "client-a");
+        MockHttpServletRequest withoutHeader = request("10.0.0.1", null);
+
+        // when
+        String key = ClientKeys.forRateLimit(request, HEADER, Set.of("10.0.0.1"));
+        String fallback = ClientKeys.forRateLimit(withoutHeader, HEADER, Set.of("10.0.0.1"));
+
+        // then
+        assertThat(key).isEqualTo("client:client-a");
+        assertThat(fallback).isEqualTo("10.0.0.1");
+    }
+
+    private MockHttpServletRequest request(String remoteAddr, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/book");
+        request.setRemoteAddr(remoteAddr);
+        if (client != null) {
+            request.addHeader(HEADER, client);
+        }
+        return request;
+    }
+}
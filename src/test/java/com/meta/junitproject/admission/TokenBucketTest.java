@@ -0,0 +1,45 @@
+package com.meta.junitproject.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketTest {
+
+    @Test
+    public void burst_and_refill_test() {
+        // given (burst 3, 초당 1개)
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(3, 1, now);
+
+        // when
+        long first = bucket.tryAcquire(now);
+        bucket.tryAcquire(now);
+        bucket.tryAcquire(now);
+        long rejected = bucket.tryAcquire(now);
+        long afterRefill = bucket.tryAcquire(now + TimeUnit.SECONDS.toNanos(1));
+
+        // then
+        assertThat(first).isZero();
+        assertThat(rejected).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(afterRefill).isZero();
+    }
+
+    @Test
+    public void refill_capped_test() {
+        // given
+        TokenBucket bucket = new TokenBucket(2, 1, 0);
+
+        // when (한참 쉬어도 capacity 이상 쌓이지 않는다)
+        long later = TimeUnit.MINUTES.toNanos(1);
+        int admitted = 0;
+        while (bucket.tryAcquire(later) == 0) {
+            admitted++;
+        }
+
+        // then
+        assertThat(admitted).isEqualTo(2);
+    }
+}
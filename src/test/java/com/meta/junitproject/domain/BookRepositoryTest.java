@@ -1,9 +1,11 @@
 package com.meta.junitproject.domain;
 
+import com.meta.junitproject.web.dto.response.BookRespDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 
@@ -46,6 +48,9 @@ public class BookRepositoryTest {
     @Autowired  // DI
     private BookRepository bookRepository;
 
+    // id는 sequence(pooled)로 미리 할당되므로 @Sql로 테이블을 초기화해도 1부터 시작하지 않는다.
+    private Long savedId;
+
 //    @BeforeAll // 테스트 시작 전 한 번만 실행
     @BeforeEach // 각 테스트 시작 전 한 번씩 실행
     public void data_ready() {
@@ -55,7 +60,7 @@ public class BookRepositoryTest {
                 .title(title)
                 .author(author)
                 .build();
-        bookRepository.save(book);
+        savedId = bookRepository.save(book).getId();
     } // 만약 트랜잭션이 종료되었다면 2번이 작동하지 않아야 함.
     // 가정 1. [data_ready() + 1번], [data_ready() + 2번] -> size 1 (이게 맞다.)
     // 가정 2. [data_ready() + 1번 + data_ready() + 2번] -> size 2
@@ -105,7 +110,7 @@ public class BookRepositoryTest {
         String author = "meta";
 
         //when
-        Book bookPS = bookRepository.findById(1L).get();
+        Book bookPS = bookRepository.findById(savedId).get();
 
         //then
         assertEquals(title, bookPS.getTitle());
@@ -117,7 +122,7 @@ public class BookRepositoryTest {
     @Test
     public void delete_book() {
         // given
-        Long id = 1L;
+        Long id = savedId;
 
         // when
         bookRepository.deleteById(id);
@@ -133,7 +138,7 @@ public class BookRepositoryTest {
     @Test
     public void modify_book() {
         // given
-        Long id = 1L;
+        Long id = savedId;
         String title = "junit5";
         String author = "meta2";
         Book book = new Book(id, title, author);
@@ -162,4 +167,23 @@ public class BookRepositoryTest {
         assertEquals(title, bookPS.getTitle());
         assertEquals(author, bookPS.getAuthor());
     }
+
+    // 6. 책 목록 보기 (keyset 페이징)
+    @Test
+    public void find_page_after_test() {
+        // given
+        Long firstId = savedId;
+        bookRepository.save(Book.builder().title("spring").author("meta").build());
+        bookRepository.save(Book.builder().title("jpa").author("meta").build());
+
+        // when
+        List<BookRespDto> firstPage = bookRepository.findDtoPageAfter(0L, PageRequest.of(0, 2));
+        List<BookRespDto> secondPage = bookRepository.findDtoPageAfter(firstPage.get(1).getId(), PageRequest.of(0, 2));
+
+        // then
+        assertEquals(2, firstPage.size());
+        assertEquals(firstId, firstPage.get(0).getId());
+        assertEquals(1, secondPage.size());
+        assertEquals("jpa", secondPage.get(0).getTitle());
+    }
 }
@@ -0,0 +1,131 @@
+package com.meta.junitproject.routing;
+
+import com.jayway.jsonpath.JsonPath;
+import com.meta.junitproject.service.BookService;
+import com.meta.junitproject.web.dto.request.BookSaveReqDto;
+import com.meta.junitproject.web.dto.response.BookListRespDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 읽기/쓰기 분리를 h2 두 개(primary, replica)로 확인한다. (복제는 없으므로 replica에는 테스트가 직접 데이터를 넣는다.)
+ * 1. readOnly 조회는 replica, 쓰기는 primary
+ * 2. replica 지연이 max-lag를 넘으면 primary에서 조회
+ * 3. 쓰기를 한 클라이언트는 window 동안 primary에서 조회 (다른 클라이언트는 replica)
+ * 지연은 replica의 replica_lag 테이블 값으로 흉내내고, 스케줄러 대신 checkLag를 직접 호출한다.
+ */
+@ActiveProfiles("dev")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary",
+        "spring.jpa.show-sql=false",
+        "book.mail.dispatch.enabled=false",
+        "book.datasource.routing.enabled=true",
+        "book.datasource.replicas.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "book.datasource.replicas.lag-query=SELECT seconds FROM replica_lag",
+        "book.datasource.replicas.max-lag=2s",
+        "book.datasource.replicas.lag-check-interval=3600000",
+        "book.datasource.read-your-writes.window=1m"})
+public class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ReplicaSet replicaSet;
+
+    @Autowired
+    private TestRestTemplate rt;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    public void replica_ready() {
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        new ResourceDatabasePopulator(new ClassPathResource("db/tableInit.sql")).execute(replica.getDataSource());
+        replica.execute("create table if not exists replica_lag (seconds bigint)");
+        replica.update("delete from replica_lag");
+        replica.update("insert into replica_lag (seconds) values (0)");
+        replica.update("insert into Book (id, author, title, version, modifiedAt, deleted) "
+                + "values (1000000, 'replica', 'replica-book', 0, current_timestamp, false)");
+        replicaSet.checkLag();
+    }
+
+    @Test
+    public void read_from_replica_test() {
+        // given
+        bookService.register_book(saveReqDto("primary-book"));
+
+        // when
+        BookListRespDto bookListRespDto = bookService.look_book_contents();
+
+        // then (쓰기는 primary에, 조회는 replica에서)
+        assertThat(titles(bookListRespDto.getItems())).containsExactly("replica-book");
+    }
+
+    @Test
+    public void lagging_replica_fallback_test() {
+        // given
+        bookService.register_book(saveReqDto("primary-book"));
+        replica.update("update replica_lag set seconds = 60");
+        replicaSet.checkLag();
+
+        // when
+        BookListRespDto bookListRespDto = bookService.look_book_contents();
+
+        // then
+        assertThat(titles(bookListRespDto.getItems())).contains("primary-book").doesNotContain("replica-book");
+    }
+
+    @Test
+    public void read_your_writes_test() {
+        // given
+        String body = "{\"title\":\"my-book\",\"author\":\"meta\"}";
+        rt.exchange("/api/v1/book", HttpMethod.POST, new HttpEntity<>(body, headers("writer")), String.class);
+
+        // when
+        ResponseEntity<String> writerRead = rt.exchange("/api/v1/book", HttpMethod.GET, new HttpEntity<>(null, headers("writer")), String.class);
+        ResponseEntity<String> readerRead = rt.exchange("/api/v1/book", HttpMethod.GET, new HttpEntity<>(null, headers("reader")), String.class);
+
+        // then
+        List<String> writerTitles = JsonPath.parse(writerRead.getBody()).read("$.body.items[*].title");
+        List<String> readerTitles = JsonPath.parse(readerRead.getBody()).read("$.body.items[*].title");
+
+        assertThat(writerTitles).contains("my-book").doesNotContain("replica-book");
+        assertThat(readerTitles).containsExactly("replica-book");
+    }
+
+    private BookSaveReqDto saveReqDto(String title) {
+        BookSaveReqDto dto = new BookSaveReqDto();
+        dto.setTitle(title);
+        dto.setAuthor("meta");
+        return dto;
+    }
+
+    private List<String> titles(List<BookRespDto> books) {
+        return books.stream().map(BookRespDto::getTitle).collect(Collectors.toList());
+    }
+
+    private HttpHeaders headers(String client) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Client-Id", client);
+        return headers;
+    }
+}
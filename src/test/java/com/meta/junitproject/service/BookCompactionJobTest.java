@@ -0,0 +1,69 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.domain.Book;
+import com.meta.junitproject.domain.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * soft delete 모드
+ * 1. 삭제하면 모든 조회에서 빠지지만 행(tombstone)은 남아 있다.
+ * 2. BookCompactionJob이 retention이 지난 tombstone을 실제로 지운다. (retention 0s)
+ * 스케줄러는 interval을 크게 잡아 사실상 멈추고 compact_chunk를 직접 호출한다.
+ */
+@ActiveProfiles("dev")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:compaction_test",
+        "book.delete.soft=true",
+        "book.delete.compaction.interval=3600000",
+        "book.delete.compaction.retention=0s"})
+public class BookCompactionJobTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookCompactionJob bookCompactionJob;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void soft_delete_and_compact_test() {
+        // given
+        Long id = bookRepository.save(Book.builder().title("junit").author("meta").build()).getId();
+        Long otherId = bookRepository.save(Book.builder().title("spring").author("meta").build()).getId();
+
+        // when
+        int deleted = bookService.delete_books(List.of(id));
+
+        // then (조회에서는 빠지고 tombstone은 남아 있음)
+        assertThat(deleted).isEqualTo(1);
+        assertThat(bookRepository.findById(id)).isEmpty();
+        assertThat(bookRepository.findDtoById(id)).isEmpty();
+        assertThat(bookRepository.findAllDtos()).extracting("id").containsExactly(otherId);
+        assertThat(countRows(id)).isEqualTo(1);
+
+        // when (compaction)
+        int purged = bookCompactionJob.compact_chunk();
+
+        // then
+        assertThat(purged).isEqualTo(1);
+        assertThat(countRows(id)).isZero();
+        assertThat(countRows(otherId)).isEqualTo(1);
+    }
+
+    private int countRows(Long id) {
+        return jdbcTemplate.queryForObject("select count(*) from Book where id = ?", Integer.class, id);
+    }
+}
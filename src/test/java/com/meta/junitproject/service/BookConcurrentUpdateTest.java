@@ -0,0 +1,127 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.domain.Book;
+import com.meta.junitproject.domain.BookRepository;
+import com.meta.junitproject.web.dto.request.BookSaveReqDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import com.meta.junitproject.web.handler.ex.BookConflictException;
+import com.meta.junitproject.web.handler.ex.BookPreconditionFailedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 같은 책을 여러 스레드가 동시에 수정해도 수정이 사라지지 않는지 (실제 DB, 트랜잭션)
+ * 1. If-Match: 조회 -> 조회한 version으로 수정, 412면 다시 조회 (클라이언트 재시도) -> 모든 증가가 반영되어야 한다.
+ * 2. If-Match 없음: 서비스가 재시도, 재시도를 다 쓰면 409 -> 성공한 수정 수 == 증가한 version
+ * 다른 테스트 컨텍스트와 섞이지 않도록 DB(h2 mem)를 따로 쓴다.
+ */
+@ActiveProfiles("dev")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:concurrent_update_test",
+        "spring.jpa.show-sql=false",
+        "book.mail.dispatch.enabled=false"})
+public class BookConcurrentUpdateTest {
+
+    private static final int THREADS = 32;
+    private static final int UPDATES_PER_THREAD = 20;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    public void if_match_no_lost_update_test() throws Exception {
+        // given (title을 카운터로 사용)
+        Long id = bookRepository.save(Book.builder().title("0").author("meta").build()).getId();
+
+        // when
+        run(() -> {
+            for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                while (true) {
+                    BookRespDto current = bookService.look_one_book(id);
+                    try {
+                        bookService.modify_book(id, dto(Integer.parseInt(current.getTitle()) + 1), current.getVersion());
+                        break;
+                    } catch (BookPreconditionFailedException e) {
+                        // 다른 스레드가 먼저 수정함 -> 다시 조회
+                    }
+                }
+            }
+        });
+
+        // then
+        Book bookPS = bookRepository.findById(id).get();
+        assertThat(bookPS.getTitle()).isEqualTo(String.valueOf(THREADS * UPDATES_PER_THREAD));
+        assertThat(bookPS.getVersion()).isEqualTo(THREADS * UPDATES_PER_THREAD);
+    }
+
+    @Test
+    public void unconditional_update_bounded_retry_test() throws Exception {
+        // given
+        Long id = bookRepository.save(Book.builder().title("junit").author("meta").build()).getId();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger conflicted = new AtomicInteger();
+
+        // when
+        run(() -> {
+            for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                try {
+                    bookService.modify_book(id, dto(i));
+                    succeeded.incrementAndGet();
+                } catch (BookConflictException e) {
+                    conflicted.incrementAndGet();
+                }
+            }
+        });
+
+        // then
+        Book bookPS = bookRepository.findById(id).get();
+        assertThat(succeeded.get() + conflicted.get()).isEqualTo(THREADS * UPDATES_PER_THREAD);
+        assertThat(succeeded.get()).isPositive();
+        assertThat(bookPS.getVersion()).isEqualTo(succeeded.get());
+    }
+
+    // 모든 스레드가 동시에 시작하도록 latch로 맞춘다.
+    private void run(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS); // 스레드 안의 예외는 여기서 다시 던져진다.
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private BookSaveReqDto dto(int title) {
+        BookSaveReqDto dto = new BookSaveReqDto();
+        dto.setTitle(String.valueOf(title));
+        dto.setAuthor("meta");
+        return dto;
+    }
+}
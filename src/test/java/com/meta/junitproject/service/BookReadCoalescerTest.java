@@ -0,0 +1,157 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.web.dto.response.BookListRespDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import com.meta.junitproject.web.handler.ex.BookNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 동시에 들어온 같은 조회는 BookService(= DB 조회)를 한 번만 호출하고 결과를 나눠 받는지
+ */
+@ExtendWith(MockitoExtension.class)
+public class BookReadCoalescerTest {
+
+    private static final int REQUESTS = 50;
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private BookSnapshotStore bookSnapshotStore; // serving() == null: 스냅샷 없이 DB(BookService)에서 읽는다.
+
+    private SimpleMeterRegistry meterRegistry;
+    private BookReadCoalescer bookReadCoalescer;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookReadCoalescer = new BookReadCoalescer(bookService, bookSnapshotStore, meterRegistry, true, Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void look_one_book_coalesced_test() throws Exception {
+        // given
+        Long id = 1L;
+        BookRespDto book = new BookRespDto(id, "junit", "meta", 0L, null);
+        CountDownLatch released = new CountDownLatch(1);
+
+        // stub (나머지 요청이 모두 합류할 때까지 DB 조회가 끝나지 않는다)
+        when(bookService.look_one_book(id)).thenAnswer(invocation -> {
+            released.await(5, TimeUnit.SECONDS);
+            return book;
+        });
+
+        // when
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        List<Future<BookRespDto>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(executor.submit(() -> bookReadCoalescer.look_one_book(id)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (followers("look_one_book") < REQUESTS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        released.countDown();
+
+        List<BookRespDto> results = new ArrayList<>();
+        for (Future<BookRespDto> future : futures) {
+            results.add(future.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        // then
+        verify(bookService, times(1)).look_one_book(id);
+        assertThat(followers("look_one_book")).isEqualTo(REQUESTS - 1);
+        assertThat(results).hasSize(REQUESTS).allMatch(result -> result == book);
+    }
+
+    @Test
+    public void look_book_contents_follower_timeout_test() throws Exception {
+        // given (leader의 조회가 follower의 대기 시간보다 오래 걸린다)
+        bookReadCoalescer = new BookReadCoalescer(bookService, bookSnapshotStore, meterRegistry, true, Duration.ofMillis(50));
+        BookListRespDto slow = BookListRespDto.builder().bookList(List.of()).build();
+        BookListRespDto own = BookListRespDto.builder().bookList(List.of()).build();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+
+        // stub
+        when(bookService.look_book_contents()).thenAnswer(invocation -> {
+            leaderStarted.countDown();
+            released.await(5, TimeUnit.SECONDS);
+            return slow;
+        }).thenReturn(own);
+
+        // when
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<BookListRespDto> leader = executor.submit(() -> bookReadCoalescer.look_book_contents());
+        leaderStarted.await(5, TimeUnit.SECONDS);
+        BookListRespDto follower = bookReadCoalescer.look_book_contents();
+        released.countDown();
+
+        // then (503 대신 직접 조회한 결과를 받는다)
+        assertThat(follower).isSameAs(own);
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isSameAs(slow);
+        assertThat(meterRegistry.get("book.read.coalescing").tag("operation", "look_book_contents").tag("role", "timeout").counter().count()).isEqualTo(1);
+        verify(bookService, times(2)).look_book_contents();
+        executor.shutdown();
+    }
+
+    @Test
+    public void look_one_book_not_shared_after_done_test() {
+        // given
+        Long id = 1L;
+        when(bookService.look_one_book(id)).thenThrow(new BookNotFoundException());
+
+        // when (끝난 조회의 결과(예외 포함)는 저장하지 않는다)
+        assertThatThrownBy(() -> bookReadCoalescer.look_one_book(id)).isInstanceOf(BookNotFoundException.class);
+        assertThatThrownBy(() -> bookReadCoalescer.look_one_book(id)).isInstanceOf(BookNotFoundException.class);
+
+        // then
+        verify(bookService, times(2)).look_one_book(id);
+    }
+
+    @Test
+    public void look_one_book_from_snapshot_test() {
+        // given
+        BookSnapshot snapshot = BookSnapshot.empty().apply(List.of(
+                BookChangedEvent.created(new BookRespDto(1L, "junit", "meta", 0L, null))), Instant.now());
+
+        // stub
+        when(bookSnapshotStore.serving()).thenReturn(snapshot);
+
+        // when
+        BookRespDto result = bookReadCoalescer.look_one_book(1L);
+
+        // then (DB를 거치지 않고, 없는 id는 404)
+        assertThat(result.getTitle()).isEqualTo("junit");
+        assertThatThrownBy(() -> bookReadCoalescer.look_one_book(2L)).isInstanceOf(BookNotFoundException.class);
+        verify(bookService, never()).look_one_book(any());
+    }
+
+    private double followers(String operation) {
+        return meterRegistry.get("book.read.coalescing").tag("operation", operation).tag("role", "follower").counter().count();
+    }
+}
@@ -0,0 +1,173 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.domain.BookRepository;
+import com.meta.junitproject.web.dto.request.BookSaveReqDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import com.meta.junitproject.web.handler.ex.BookUnprocessableException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 쓰기 합치기 모드에서 동시에 들어온 등록 요청들이
+ * 1. 모두 각자 자기 결과(id)를 받고
+ * 2. 요청 수보다 적은 트랜잭션(batch)으로 커밋되는지
+ * 3. batch에 잘못된 건이 섞여도 나머지는 저장되는지, 같은 Idempotency-Key의 재시도는 한 번만 저장되는지
+ * 다른 테스트 컨텍스트와 섞이지 않도록 DB(h2 mem)를 따로 쓴다.
+ */
+@ActiveProfiles("dev")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:register_buffer_test",
+        "spring.jpa.show-sql=false",
+        "book.mail.dispatch.enabled=false",
+        "book.register.coalescing.enabled=true",
+        "book.register.coalescing.batch-size=50",
+        "book.register.coalescing.linger=50ms"})
+public class BookRegisterBufferTest {
+
+    private static final int REQUESTS = 200;
+
+    @Autowired
+    private BookRegisterBuffer bookRegisterBuffer;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void group_commit_test() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BookRespDto>> futures = new ArrayList<>();
+        long before = bookRepository.count();
+        DistributionSummary batchSize = meterRegistry.get("book.register.batch.size").summary();
+        double amountBefore = batchSize.totalAmount();
+        long batchesBefore = batchSize.count();
+
+        // when
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                BookSaveReqDto dto = new BookSaveReqDto();
+                dto.setTitle("junit" + i);
+                dto.setAuthor("meta");
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return bookRegisterBuffer.register(dto);
+                }));
+            }
+            start.countDown();
+
+            // then (각자 자기 책을 돌려받는다)
+            Set<Long> ids = new HashSet<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                BookRespDto bookRespDto = futures.get(i).get(30, TimeUnit.SECONDS);
+                assertThat(bookRespDto.getTitle()).isEqualTo("junit" + i);
+                ids.add(bookRespDto.getId());
+            }
+            assertThat(ids).hasSize(REQUESTS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(bookRepository.count() - before).isEqualTo(REQUESTS);
+        assertThat(batchSize.totalAmount() - amountBefore).isEqualTo(REQUESTS);
+        assertThat(batchSize.count() - batchesBefore).isLessThan(REQUESTS);
+    }
+
+    @Test
+    public void failed_item_isolated_test() throws Exception {
+        // given (title이 null이면 insert가 실패한다)
+        int requests = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BookRespDto>> futures = new ArrayList<>();
+        long before = bookRepository.count();
+
+        // when
+        try {
+            for (int i = 0; i < requests; i++) {
+                BookSaveReqDto dto = new BookSaveReqDto();
+                dto.setTitle(i == 7 ? null : "junit" + i);
+                dto.setAuthor("meta");
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return bookRegisterBuffer.register(dto);
+                }));
+            }
+            start.countDown();
+
+            // then (잘못된 한 건만 실패)
+            for (int i = 0; i < requests; i++) {
+                Future<BookRespDto> future = futures.get(i);
+                if (i == 7) {
+                    assertThatThrownBy(() -> future.get(30, TimeUnit.SECONDS)).hasCauseInstanceOf(RuntimeException.class);
+                } else {
+                    assertThat(future.get(30, TimeUnit.SECONDS).getTitle()).isEqualTo("junit" + i);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(bookRepository.count() - before).isEqualTo(requests - 1);
+    }
+
+    @Test
+    public void idempotent_retry_test() {
+        // given
+        BookSaveReqDto dto = new BookSaveReqDto();
+        dto.setTitle("junit");
+        dto.setAuthor("meta");
+        long before = bookRepository.count();
+
+        // when (응답을 못 받은 클라이언트가 같은 키로 다시 보냄)
+        BookRespDto first = bookRegisterBuffer.register(dto, "client-a", "register-retry-1");
+        BookRespDto retry = bookRegisterBuffer.register(dto, "client-a", "register-retry-1");
+        BookRespDto other = bookRegisterBuffer.register(dto, "client-a", "register-retry-2");
+        BookRespDto otherClient = bookRegisterBuffer.register(dto, "client-b", "register-retry-1"); // 키는 클라이언트별
+
+        // then
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        assertThat(other.getId()).isNotEqualTo(first.getId());
+        assertThat(otherClient.getId()).isNotEqualTo(first.getId());
+        assertThat(bookRepository.count() - before).isEqualTo(3);
+    }
+
+    @Test
+    public void idempotent_key_reused_test() {
+        // given
+        BookSaveReqDto dto = new BookSaveReqDto();
+        dto.setTitle("junit");
+        dto.setAuthor("meta");
+        BookSaveReqDto changed = new BookSaveReqDto();
+        changed.setTitle("spring");
+        changed.setAuthor("meta");
+        long before = bookRepository.count();
+
+        // when
+        bookRegisterBuffer.register(dto, "client-a", "register-reused-1");
+
+        // then (같은 키로 다른 내용을 보내면 처음 결과를 돌려주지 않고 422)
+        assertThatThrownBy(() -> bookRegisterBuffer.register(changed, "client-a", "register-reused-1"))
+                .isInstanceOf(BookUnprocessableException.class);
+        assertThat(bookRepository.count() - before).isEqualTo(1);
+    }
+}
@@ -0,0 +1,93 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 색인 자체는 DB와 상관없으므로 이벤트만 흘려서 순수 단위 테스트
+ */
+public class BookSearchIndexTest {
+
+    private BookSearchIndex bookSearchIndex;
+
+    @BeforeEach
+    public void setup() {
+        bookSearchIndex = new BookSearchIndex(null, null, null);
+        bookSearchIndex.onBookChanged(BookChangedEvent.created(book(1L, "junit강의", "메타코딩")));
+        bookSearchIndex.onBookChanged(BookChangedEvent.created(book(2L, "스프링 부트 JPA", "겟인데어")));
+        bookSearchIndex.onBookChanged(BookChangedEvent.created(book(3L, "자바의 정석", "남궁성")));
+    }
+
+    @Test
+    public void prefix_search_test() {
+        assertThat(ids(bookSearchIndex.search("JUnit", BookSearchIndex.Mode.PREFIX, 10))).containsExactly(1L);
+        assertThat(ids(bookSearchIndex.search("부트", BookSearchIndex.Mode.PREFIX, 10))).containsExactly(2L);
+        assertThat(ids(bookSearchIndex.search("정", BookSearchIndex.Mode.PREFIX, 10))).containsExactly(3L);
+        assertThat(ids(bookSearchIndex.search("코딩", BookSearchIndex.Mode.PREFIX, 10))).isEmpty(); // 단어 중간
+    }
+
+    @Test
+    public void contains_search_test() {
+        assertThat(ids(bookSearchIndex.search("코딩", BookSearchIndex.Mode.CONTAINS, 10))).containsExactly(1L);
+        assertThat(ids(bookSearchIndex.search("강의", BookSearchIndex.Mode.CONTAINS, 10))).containsExactly(1L);
+    }
+
+    @Test
+    public void choseong_search_test() {
+        assertThat(ids(bookSearchIndex.search("ㅈㅂ", BookSearchIndex.Mode.PREFIX, 10))).containsExactly(3L);
+        assertThat(ids(bookSearchIndex.search("ㅅㅍㄹ", BookSearchIndex.Mode.PREFIX, 10))).containsExactly(2L);
+    }
+
+    @Test
+    public void update_and_delete_test() {
+        // when
+        bookSearchIndex.onBookChanged(BookChangedEvent.updated(book(1L, "spring강의", "메타코딩")));
+        bookSearchIndex.onBookChanged(BookChangedEvent.deleted(3L));
+
+        // then
+        assertThat(ids(bookSearchIndex.search("junit", BookSearchIndex.Mode.PREFIX, 10))).isEmpty();
+        assertThat(ids(bookSearchIndex.search("spring", BookSearchIndex.Mode.PREFIX, 10))).containsExactly(1L);
+        assertThat(ids(bookSearchIndex.search("자바", BookSearchIndex.Mode.PREFIX, 10))).isEmpty();
+        assertThat(bookSearchIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void limit_test() {
+        assertThat(bookSearchIndex.search("ㅁ", BookSearchIndex.Mode.CONTAINS, 10)).hasSize(1);
+        assertThat(bookSearchIndex.search("의", BookSearchIndex.Mode.CONTAINS, 1)).hasSize(1);
+    }
+
+    @Test
+    public void compact_test() {
+        // given (삭제된 문서가 절반을 넘음)
+        for (long id = 100; id < 2100; id++) {
+            bookSearchIndex.onBookChanged(BookChangedEvent.created(book(id, "title" + id, "author")));
+        }
+        for (long id = 100; id < 1600; id++) {
+            bookSearchIndex.onBookChanged(BookChangedEvent.deleted(id));
+        }
+
+        // when (백그라운드에서 도는 것과 같은 작업을 직접 호출)
+        bookSearchIndex.compact();
+
+        // then
+        assertThat(bookSearchIndex.size()).isEqualTo(503);
+        assertThat(ids(bookSearchIndex.search("title2099", BookSearchIndex.Mode.PREFIX, 10))).containsExactly(2099L);
+        assertThat(ids(bookSearchIndex.search("title1599", BookSearchIndex.Mode.PREFIX, 10))).isEmpty();
+        assertThat(ids(bookSearchIndex.search("자바", BookSearchIndex.Mode.PREFIX, 10))).containsExactly(3L);
+    }
+
+    private BookRespDto book(Long id, String title, String author) {
+        return BookRespDto.builder().id(id).title(title).author(author).build();
+    }
+
+    private List<Long> ids(List<BookRespDto> books) {
+        return books.stream().map(BookRespDto::getId).collect(Collectors.toList());
+    }
+}
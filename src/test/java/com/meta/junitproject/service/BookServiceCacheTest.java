@@ -0,0 +1,86 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.domain.Book;
+import com.meta.junitproject.domain.BookRepository;
+import com.meta.junitproject.web.dto.request.BookSaveReqDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 캐시는 프록시(@Cacheable)를 타야 하므로 mock 환경이 아닌 스프링 컨텍스트에서 테스트한다.
+ * 레포지토리는 SpyBean -> 실제 DB를 타면서 호출 횟수만 검증
+ */
+@ActiveProfiles("dev")
+@SpringBootTest(properties = "book.cache.enabled=true")
+public class BookServiceCacheTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @SpyBean
+    private BookRepository bookRepository;
+
+    @Test
+    public void look_one_book_cache_hit_test() {
+        // given
+        Long id = bookRepository.save(Book.builder().title("junit").author("meta").build()).getId();
+
+        // when
+        bookService.look_one_book(id);
+        BookRespDto bookRespDto = bookService.look_one_book(id);
+
+        // then
+        assertThat(bookRespDto.getTitle()).isEqualTo("junit");
+        verify(bookRepository, times(1)).findDtoById(id);
+    }
+
+    @Test
+    public void modify_book_invalidates_cache_test() {
+        // given
+        Long id = bookRepository.save(Book.builder().title("junit").author("meta").build()).getId();
+        bookService.look_one_book(id);
+
+        BookSaveReqDto dto = new BookSaveReqDto();
+        dto.setTitle("spring");
+        dto.setAuthor("meta");
+
+        // when
+        bookService.modify_book(id, dto);
+        BookRespDto bookRespDto = bookService.look_one_book(id);
+
+        // then
+        assertThat(bookRespDto.getTitle()).isEqualTo("spring");
+    }
+
+    @Test
+    public void look_one_book_concurrent_miss_test() throws Exception {
+        // given (느린 조회)
+        Long id = bookRepository.save(Book.builder().title("junit").author("meta").build()).getId();
+        doAnswer(invocation -> {
+            Thread.sleep(300);
+            return Optional.of(new BookRespDto(id, "junit", "meta", 0L, null));
+        }).when(bookRepository).findDtoById(id);
+
+        // when (캐시가 빈 상태에서 동시에 조회)
+        CompletableFuture<BookRespDto> first = CompletableFuture.supplyAsync(() -> bookService.look_one_book(id));
+        CompletableFuture<BookRespDto> second = CompletableFuture.supplyAsync(() -> bookService.look_one_book(id));
+
+        // then (조회는 한 번, 둘 다 같은 결과)
+        assertThat(first.get(5, TimeUnit.SECONDS).getTitle()).isEqualTo("junit");
+        assertThat(second.get(5, TimeUnit.SECONDS).getTitle()).isEqualTo("junit");
+        verify(bookRepository, times(1)).findDtoById(id);
+    }
+}
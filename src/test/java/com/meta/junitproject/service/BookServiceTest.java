@@ -1,25 +1,34 @@
 package com.meta.junitproject.service;
 
-import com.meta.junitproject.domain.Book;
 import com.meta.junitproject.domain.BookRepository;
-import com.meta.junitproject.util.MailSender;
+import com.meta.junitproject.domain.BookVersion;
+import com.meta.junitproject.domain.MailOutboxRepository;
 import com.meta.junitproject.web.dto.response.BookListRespDto;
 import com.meta.junitproject.web.dto.response.BookRespDto;
 import com.meta.junitproject.web.dto.request.BookSaveReqDto;
+import com.meta.junitproject.web.handler.ex.BookPreconditionFailedException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -45,7 +54,13 @@ public class BookServiceTest {
     private BookRepository bookRepository;
 
     @Mock
-    private MailSender mailSender;
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
 
     @Test
     public void book_register_test() {
@@ -56,8 +71,8 @@ public class BookServiceTest {
 
         // stub (행동 정의, 가설)
         // save할 때 가짜가 호출되며 any가 들어감, 그 반환값만 정의하면 됨.
+        // 메일은 발송하지 않고 outbox에 기록만 한다.
         when(bookRepository.save(any())).thenReturn(dto.toEntity());
-        when(mailSender.send()).thenReturn(true);
 
         // when
         BookRespDto bookRespDto = bookService.register_book(dto);
@@ -65,6 +80,7 @@ public class BookServiceTest {
         // then
         assertThat(bookRespDto.getTitle()).isEqualTo(dto.getTitle());
         assertThat(bookRespDto.getAuthor()).isEqualTo(dto.getAuthor());
+        verify(mailOutboxRepository).save(any());
     }
 
     @Test
@@ -72,10 +88,10 @@ public class BookServiceTest {
         // given(파라미터로 들어올 데이터)
 
         // stub(가설)
-        List<Book> books = new ArrayList<>();
-        books.add(new Book(1L, "junit강의", "메타코딩"));
-        books.add(new Book(2L, "spring강의", "겟인데어"));
-        when(bookRepository.findAll()).thenReturn(books);
+        List<BookRespDto> books = new ArrayList<>();
+        books.add(new BookRespDto(1L, "junit강의", "메타코딩", 0L, null));
+        books.add(new BookRespDto(2L, "spring강의", "겟인데어", 0L, null));
+        when(bookRepository.findAllDtos()).thenReturn(books);
 
         // when(실행)
         BookListRespDto bookListRespDto = bookService.look_book_contents();
@@ -87,15 +103,37 @@ public class BookServiceTest {
         assertThat(bookListRespDto.getItems().get(1).getAuthor()).isEqualTo("겟인데어");
     }
 
+    @Test
+    public void look_book_page() {
+        // given
+        Long after = 0L;
+        Integer limit = 2;
+
+        // stub (limit + 1건을 요청하므로 3건이 오면 다음 페이지가 있다)
+        List<BookRespDto> books = new ArrayList<>();
+        books.add(new BookRespDto(1L, "junit강의", "메타코딩", 0L, null));
+        books.add(new BookRespDto(2L, "spring강의", "겟인데어", 0L, null));
+        books.add(new BookRespDto(3L, "jpa강의", "메타코딩", 0L, null));
+        when(bookRepository.findDtoPageAfter(eq(after), any())).thenReturn(books);
+
+        // when
+        BookListRespDto bookListRespDto = bookService.look_book_page(after, limit);
+
+        // then
+        assertThat(bookListRespDto.getItems()).hasSize(2);
+        assertThat(bookListRespDto.getItems().get(1).getTitle()).isEqualTo("spring강의");
+        assertThat(bookListRespDto.getNext()).isEqualTo(2L);
+    }
+
     @Test
     public void look_one_book() {
         // given
         Long id = 1L;
 
         // stub
-        Book book = new Book(1L, "junit강의", "메타코딩");
-        Optional<Book> bookOP = Optional.of(book);
-        when(bookRepository.findById(id)).thenReturn(bookOP);
+        BookRespDto book = new BookRespDto(1L, "junit강의", "메타코딩", 0L, null);
+        Optional<BookRespDto> bookOP = Optional.of(book);
+        when(bookRepository.findDtoById(id)).thenReturn(bookOP);
 
         // when
         BookRespDto bookRespDto = bookService.look_one_book(id);
@@ -113,10 +151,11 @@ public class BookServiceTest {
         dto.setTitle("spring강의");
         dto.setAuthor("겟인데어");
 
-        // stub
-        Book book = new Book(1L, "junit강의", "메타코딩");
-        Optional<Book> bookOP = Optional.of(book);
-        when(bookRepository.findById(id)).thenReturn(bookOP);
+        // stub (트랜잭션은 콜백을 바로 실행, 현재 version 3에서 조건부 update 성공)
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(bookRepository.findVersionById(id)).thenReturn(Optional.of(new BookVersion(id, 3L, Instant.now())));
+        when(bookRepository.updateIfVersion(eq(id), eq(3L), eq("spring강의"), eq("겟인데어"), any())).thenReturn(1);
 
         // when
         BookRespDto bookRespDto = bookService.modify_book(id, dto);
@@ -124,5 +163,24 @@ public class BookServiceTest {
         // then
         assertThat(bookRespDto.getTitle()).isEqualTo(dto.getTitle());
         assertThat(bookRespDto.getAuthor()).isEqualTo(dto.getAuthor());
+        assertThat(bookRespDto.getVersion()).isEqualTo(4L);
+    }
+
+    @Test
+    public void modify_book_if_match_fail() {
+        // given
+        Long id = 1L;
+        BookSaveReqDto dto = new BookSaveReqDto();
+        dto.setTitle("spring강의");
+        dto.setAuthor("겟인데어");
+
+        // stub (클라이언트는 version 2를 봤지만 이미 3으로 바뀜)
+        when(bookRepository.updateIfVersion(eq(id), eq(2L), any(), any(), any())).thenReturn(0);
+        when(bookRepository.findVersionById(id)).thenReturn(Optional.of(new BookVersion(id, 3L, Instant.now())));
+
+        // when / then
+        assertThatThrownBy(() -> bookService.modify_book(id, dto, 2L))
+                .isInstanceOf(BookPreconditionFailedException.class);
+        verify(eventPublisher, never()).publishEvent(any());
     }
 }
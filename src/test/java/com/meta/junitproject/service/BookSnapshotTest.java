@@ -0,0 +1,183 @@
+package com.meta.junitproject.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.meta.junitproject.domain.BookCatalogVersion;
+import com.meta.junitproject.web.dto.response.BookListRespDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import com.meta.junitproject.web.json.BookJsonModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 스냅샷은 DB와 상관없으므로 이벤트만 흘려서 순수 단위 테스트
+ */
+public class BookSnapshotTest {
+
+    private static final Instant MODIFIED_AT = Instant.parse("2022-08-01T00:00:00.123456Z");
+
+    @Test
+    public void find_and_contents_test() {
+        // given
+        BookSnapshot snapshot = BookSnapshot.empty().apply(List.of(
+                BookChangedEvent.created(book(3L, "자바의 정석", "남궁성", 0L)),
+                BookChangedEvent.created(book(1L, "junit강의", "메타코딩", 2L)),
+                BookChangedEvent.created(book(2L, "스프링 부트 JPA", "겟인데어", 1L))), Instant.now());
+
+        // when
+        BookRespDto one = snapshot.find(1L);
+
+        // then (목록은 id 오름차순)
+        assertThat(one.getTitle()).isEqualTo("junit강의");
+        assertThat(one.getAuthor()).isEqualTo("메타코딩");
+        assertThat(one.getVersion()).isEqualTo(2L);
+        assertThat(one.getModifiedAt()).isEqualTo(MODIFIED_AT);
+        assertThat(snapshot.find(4L)).isNull();
+        assertThat(snapshot.findVersion(2L).get().getETag()).isEqualTo("\"b2-v1\"");
+        assertThat(ids(snapshot.getContents().getItems())).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    public void copy_on_write_test() {
+        // given
+        BookSnapshot before = BookSnapshot.empty().apply(List.of(
+                BookChangedEvent.created(book(1L, "junit강의", "메타코딩", 0L)),
+                BookChangedEvent.created(book(2L, "스프링 부트 JPA", "겟인데어", 0L))), Instant.now());
+
+        // when
+        BookSnapshot after = before.apply(List.of(
+                BookChangedEvent.updated(book(1L, "spring강의", "메타코딩", 1L)),
+                BookChangedEvent.deleted(2L),
+                BookChangedEvent.created(book(5L, "자바의 정석", "남궁성", 0L))), Instant.now());
+
+        // then (기존 스냅샷을 읽던 요청은 그대로 같은 시점을 본다)
+        assertThat(before.find(1L).getTitle()).isEqualTo("junit강의");
+        assertThat(ids(before.getContents().getItems())).containsExactly(1L, 2L);
+        assertThat(after.find(1L).getTitle()).isEqualTo("spring강의");
+        assertThat(after.find(2L)).isNull();
+        assertThat(ids(after.getContents().getItems())).containsExactly(1L, 5L);
+        assertThat(after.getGeneration()).isEqualTo(before.getGeneration() + 1);
+    }
+
+    @Test
+    public void out_of_order_update_test() {
+        // given (T1이 v1, T2가 v2를 커밋했는데 T2의 afterCommit이 먼저 반영됨)
+        BookSnapshot snapshot = BookSnapshot.empty().apply(List.of(
+                BookChangedEvent.created(book(1L, "junit강의", "메타코딩", 0L)),
+                BookChangedEvent.created(book(2L, "스프링 부트 JPA", "겟인데어", 0L))), Instant.now())
+                .apply(List.of(BookChangedEvent.updated(book(1L, "v2", "메타코딩", 2L))), Instant.now());
+
+        // when (늦게 도착한 T1, 이미 삭제된 책의 수정)
+        BookSnapshot after = snapshot.apply(List.of(
+                BookChangedEvent.updated(book(1L, "v1", "메타코딩", 1L))), Instant.now())
+                .apply(List.of(BookChangedEvent.deleted(2L)), Instant.now())
+                .apply(List.of(BookChangedEvent.updated(book(2L, "resurrected", "겟인데어", 1L))), Instant.now());
+
+        // then
+        assertThat(after.find(1L).getTitle()).isEqualTo("v2");
+        assertThat(after.find(1L).getVersion()).isEqualTo(2L);
+        assertThat(after.find(2L)).isNull();
+    }
+
+    @Test
+    public void catalog_version_test() {
+        // given
+        BookSnapshot snapshot = BookSnapshot.empty().apply(List.of(
+                BookChangedEvent.created(book(1L, "junit강의", "메타코딩", 2L)),
+                BookChangedEvent.created(book(7L, "자바의 정석", "남궁성", 3L))), MODIFIED_AT);
+
+        // when
+        BookCatalogVersion catalogVersion = snapshot.getCatalogVersion();
+
+        // then (findCatalogVersion()과 같은 ETag)
+        assertThat(catalogVersion.getETag()).isEqualTo("W/\"c2-7-5-1659312000123456\"");
+        assertThat(catalogVersion.getModifiedAt()).isEqualTo(MODIFIED_AT);
+    }
+
+    @Test
+    public void catalog_version_from_list_test() {
+        // given
+        BookSnapshot snapshot = BookSnapshot.empty().apply(List.of(
+                BookChangedEvent.created(book(1L, "junit강의", "메타코딩", 2L)),
+                BookChangedEvent.created(book(7L, "자바의 정석", "남궁성", 3L))), MODIFIED_AT);
+
+        // when (응답 캐시가 본문 목록에서 계산하는 버전)
+        BookCatalogVersion fromList = BookCatalogVersion.of(snapshot.getContents().getItems());
+
+        // then
+        assertThat(fromList.getETag()).isEqualTo(snapshot.getCatalogVersion().getETag());
+        assertThat(BookCatalogVersion.of(List.of()).getETag()).isEqualTo(BookSnapshot.empty().getCatalogVersion().getETag());
+    }
+
+    @Test
+    public void catalog_version_delete_and_insert_test() {
+        // given (다른 인스턴스에서 할당받은 큰 id 51이 이미 있음)
+        BookSnapshot before = BookSnapshot.empty().apply(List.of(
+                BookChangedEvent.created(book(5L, "junit강의", "메타코딩", 0L)),
+                BookChangedEvent.created(book(51L, "자바의 정석", "남궁성", 0L))), MODIFIED_AT);
+
+        // when (5 삭제 + 6 등록: 건수, 최대 id, 버전 합계는 그대로)
+        BookSnapshot after = before.apply(List.of(
+                BookChangedEvent.deleted(5L),
+                BookChangedEvent.created(BookRespDto.builder().id(6L).title("spring").author("meta").version(0L)
+                        .modifiedAt(MODIFIED_AT.plusSeconds(1)).build())), MODIFIED_AT.plusSeconds(1));
+
+        // then
+        assertThat(after.getCatalogVersion().getETag()).isNotEqualTo(before.getCatalogVersion().getETag());
+    }
+
+    @Test
+    public void many_books_test() {
+        // given (해시 충돌, 배열 증가)
+        List<BookChangedEvent> events = new ArrayList<>();
+        for (long id = 1; id <= 10_000; id++) {
+            events.add(BookChangedEvent.created(book(id * 31, "title" + id, "author", 0L)));
+        }
+
+        // when
+        BookSnapshot snapshot = BookSnapshot.empty().apply(events, Instant.now());
+
+        // then
+        assertThat(snapshot.size()).isEqualTo(10_000);
+        for (long id = 1; id <= 10_000; id++) {
+            assertThat(snapshot.find(id * 31).getTitle()).isEqualTo("title" + id);
+            assertThat(snapshot.find(id * 31 + 1)).isNull();
+        }
+        assertThat(snapshot.getBytes()).isGreaterThan(10_000L * 100);
+    }
+
+    @Test
+    public void contents_json_test() throws Exception {
+        // given
+        BookSnapshot snapshot = BookSnapshot.empty().apply(List.of(
+                BookChangedEvent.created(book(1L, "junit강의", "메타코딩", 0L)),
+                BookChangedEvent.created(new BookRespDto(2L, "spring", "meta", null, null))), Instant.now());
+        ObjectMapper reflective = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        ObjectMapper module = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .registerModule(new BookJsonModule());
+
+        // when (열에서 바로 쓴 json)
+        String actual = module.writeValueAsString(snapshot.getContents());
+
+        // then (dto 목록을 reflection으로 직렬화한 것과 같다)
+        List<BookRespDto> dtos = new ArrayList<>(snapshot.getContents().getItems());
+        assertThat(actual).isEqualTo(reflective.writeValueAsString(BookListRespDto.builder().bookList(dtos).build()));
+    }
+
+    private BookRespDto book(Long id, String title, String author, Long version) {
+        return BookRespDto.builder().id(id).title(title).author(author).version(version).modifiedAt(MODIFIED_AT).build();
+    }
+
+    private List<Long> ids(List<BookRespDto> books) {
+        return books.stream().map(BookRespDto::getId).collect(Collectors.toList());
+    }
+}
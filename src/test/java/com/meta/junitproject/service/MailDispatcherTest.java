@@ -0,0 +1,135 @@
+package com.meta.junitproject.service;
+
+import com.meta.junitproject.domain.MailOutbox;
+import com.meta.junitproject.domain.MailOutboxRepository;
+import com.meta.junitproject.domain.MailOutboxStatus;
+import com.meta.junitproject.util.MailSender;
+import com.meta.junitproject.util.MailSenderStub;
+import com.meta.junitproject.web.dto.request.BookSaveReqDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 느린 메일 서버(MailSenderStub, 1초)를 붙여놓고
+ * 1. 책 등록은 메일 지연과 상관없이 끝나는지
+ * 2. MailDispatcher가 outbox를 비우는지 / 실패 시 재시도로 남겨두는지
+ * 3. 이미 가져간(SENDING, lease 중) 건은 다른 dispatcher 실행이 다시 가져가지 않는지
+ * 스케줄러는 interval을 크게 잡아 사실상 멈추고 dispatch_batch를 직접 호출한다. (enabled=false면 빈이 안 뜸)
+ * 다른 테스트 컨텍스트의 dispatcher가 outbox를 가져가지 않도록 DB(h2 mem)를 따로 쓴다.
+ */
+@ActiveProfiles("dev")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:mail_dispatcher_test",
+        "book.mail.dispatch.interval=3600000",
+        "book.mail.dispatch.retry-backoff=0s"})
+public class MailDispatcherTest {
+
+    private static final long MAIL_LATENCY_MILLIS = 1000;
+
+    @TestConfiguration
+    static class MailSenderStubConfig {
+        @Primary
+        @Bean
+        public MailSender mailSenderStub() {
+            return new MailSenderStub(MAIL_LATENCY_MILLIS);
+        }
+    }
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MailDispatcher mailDispatcher;
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Autowired
+    private MailSender mailSender;
+
+    @BeforeEach
+    public void clean() {
+        mailOutboxRepository.deleteAll();
+        ((MailSenderStub) mailSender).setFail(false);
+    }
+
+    @Test
+    public void register_book_does_not_wait_for_mail_test() {
+        // given
+        BookSaveReqDto dto = new BookSaveReqDto();
+        dto.setTitle("junit");
+        dto.setAuthor("meta");
+
+        // when
+        long start = System.nanoTime();
+        BookRespDto bookRespDto = bookService.register_book(dto);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // then
+        assertThat(elapsedMillis).isLessThan(MAIL_LATENCY_MILLIS);
+        MailOutbox mailOutbox = mailOutboxRepository.findAll().get(0);
+        assertThat(mailOutbox.getBookId()).isEqualTo(bookRespDto.getId());
+        assertThat(mailOutbox.getStatus()).isEqualTo(MailOutboxStatus.PENDING);
+    }
+
+    @Test
+    public void dispatch_batch_sends_pending_mail_test() {
+        // given
+        mailOutboxRepository.save(MailOutbox.builder().bookId(1L).build());
+        mailOutboxRepository.save(MailOutbox.builder().bookId(2L).build());
+
+        // when
+        MailDispatcher.BatchResult result = mailDispatcher.dispatch_batch();
+
+        // then
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(0);
+        assertThat(mailOutboxRepository.countByStatus(MailOutboxStatus.SENT)).isEqualTo(2);
+    }
+
+    @Test
+    public void dispatch_batch_retries_failed_mail_test() {
+        // given
+        mailOutboxRepository.save(MailOutbox.builder().bookId(1L).build());
+        ((MailSenderStub) mailSender).setFail(true);
+
+        // when
+        MailDispatcher.BatchResult result = mailDispatcher.dispatch_batch();
+
+        // then
+        MailOutbox mailOutbox = mailOutboxRepository.findAll().get(0);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(mailOutbox.getStatus()).isEqualTo(MailOutboxStatus.PENDING);
+        assertThat(mailOutbox.getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    public void claimed_mail_is_not_claimed_twice_test() {
+        // given
+        mailOutboxRepository.save(MailOutbox.builder().bookId(1L).build());
+        mailOutboxRepository.save(MailOutbox.builder().bookId(2L).build());
+        List<MailOutbox> first = mailDispatcher.claim_batch("first");
+
+        // when (발송이 끝나기 전에 다른 인스턴스/다음 실행이 가져가려고 함)
+        List<MailOutbox> second = mailDispatcher.claim_batch("second");
+        MailDispatcher.BatchResult result = mailDispatcher.dispatch_batch();
+
+        // then
+        assertThat(first).hasSize(2);
+        assertThat(first.get(0).getStatus()).isEqualTo(MailOutboxStatus.SENDING);
+        assertThat(second).isEmpty();
+        assertThat(result.getTotal()).isEqualTo(0);
+        assertThat(mailOutboxRepository.countByStatus(MailOutboxStatus.SENDING)).isEqualTo(2);
+    }
+}
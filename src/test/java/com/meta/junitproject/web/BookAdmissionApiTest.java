@@ -0,0 +1,65 @@
+package com.meta.junitproject.web;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 클라이언트별 rate limit: 한도를 넘으면 429 + Retry-After, 다른 클라이언트는 영향 없음
+ * 테스트 요청은 모두 localhost에서 오므로 localhost를 trusted-clients로 두고 X-Client-Id로 클라이언트를 나눈다.
+ * 다른 테스트 컨텍스트와 섞이지 않도록 DB(h2 mem)를 따로 쓴다.
+ */
+@AutoConfigureMetrics // @SpringBootTest는 기본으로 metrics export(prometheus)를 끈다
+@ActiveProfiles("dev")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:admission_test",
+        "spring.jpa.show-sql=false",
+        "book.mail.dispatch.enabled=false",
+        "book.admission.enabled=true",
+        "book.admission.trusted-clients=127.0.0.1,0:0:0:0:0:0:0:1",
+        "book.admission.rate.list.capacity=2",
+        "book.admission.rate.list.refill-per-second=0.001"})
+public class BookAdmissionApiTest {
+
+    @Autowired
+    private TestRestTemplate rt;
+
+    @Test
+    public void getBookList_rateLimited_test() {
+        // given
+        HttpEntity<String> request = new HttpEntity<>(null, clientHeaders("client-a"));
+        rt.exchange("/api/v1/book", HttpMethod.GET, request, String.class);
+        rt.exchange("/api/v1/book", HttpMethod.GET, request, String.class);
+
+        // when
+        ResponseEntity<String> rejected = rt.exchange("/api/v1/book", HttpMethod.GET, request, String.class);
+        ResponseEntity<String> other = rt.exchange("/api/v1/book", HttpMethod.GET,
+                new HttpEntity<>(null, clientHeaders("client-b")), String.class);
+        ResponseEntity<String> metrics = rt.exchange("/actuator/prometheus", HttpMethod.GET, request, String.class);
+
+        // then
+        DocumentContext dc = JsonPath.parse(rejected.getBody());
+        Integer code = dc.read("$.code");
+
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotBlank();
+        assertThat(code).isEqualTo(-1);
+        assertThat(other.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(metrics.getBody()).contains("book_admission_requests_total{outcome=\"rate_limited\",route=\"list\"");
+    }
+
+    private HttpHeaders clientHeaders(String client) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Client-Id", client);
+        return headers;
+    }
+}
@@ -1,7 +1,9 @@
 package com.meta.junitproject.web;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 import com.meta.junitproject.domain.Book;
@@ -11,12 +13,16 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.*;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -24,6 +30,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 // 통합테스트(모든 layer 한 번에 테스트) - 가정 필요 없음 - stub 필요 없음
 // 컨트롤러만 테스트하는 것이 아님
+@AutoConfigureMetrics // @SpringBootTest는 기본으로 metrics export(prometheus)를 끈다
 @ActiveProfiles("dev")
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public class BookApiControllerTest {
@@ -37,6 +44,9 @@ public class BookApiControllerTest {
     private static ObjectMapper om;
     private static HttpHeaders headers;
 
+    // id는 sequence(pooled)로 미리 할당되므로 테이블을 초기화해도 1부터 시작하지 않는다. -> 저장된 id를 사용
+    private Long savedId;
+
     @BeforeAll
     public static void init() {
         om = new ObjectMapper();
@@ -52,14 +62,14 @@ public class BookApiControllerTest {
                 .title(title)
                 .author(author)
                 .build();
-        bookRepository.save(book);
+        savedId = bookRepository.save(book).getId();
     }
 
     @Sql("classpath:db/tableInit.sql")
     @Test
     public void updateBook_test() throws Exception {
         // given
-        Integer id = 1;
+        Long id = savedId;
         BookSaveReqDto bookSaveReqDto = new BookSaveReqDto();
         bookSaveReqDto.setTitle("spring");
         bookSaveReqDto.setAuthor("meta");
@@ -80,7 +90,7 @@ public class BookApiControllerTest {
     @Test
     public void deleteBook_test() {
         // given
-        Integer id = 1;
+        Long id = savedId;
 
         // when
         HttpEntity<String> request = new HttpEntity<>(null, headers);
@@ -94,11 +104,46 @@ public class BookApiControllerTest {
         assertThat(code).isEqualTo(1);
     }
 
+    @Sql("classpath:db/tableInit.sql")
+    @Test
+    public void deleteBooks_test() {
+        // given
+        Long secondId = bookRepository.save(Book.builder().title("spring").author("meta").build()).getId();
+        Long thirdId = bookRepository.save(Book.builder().title("jpa").author("meta").build()).getId();
+        HttpEntity<String> request = new HttpEntity<>(null, headers);
+
+        // when
+        ResponseEntity<String> byIds = rt.exchange("/api/v1/books?ids=" + savedId + "," + secondId, HttpMethod.DELETE, request, String.class);
+        ResponseEntity<String> byRange = rt.exchange("/api/v1/books?from=" + savedId + "&to=" + thirdId, HttpMethod.DELETE, request, String.class);
+
+        // then
+        assertThat((Integer) JsonPath.parse(byIds.getBody()).read("$.body.deleted")).isEqualTo(2);
+        assertThat((Integer) JsonPath.parse(byRange.getBody()).read("$.body.deleted")).isEqualTo(1); // 남아 있던 jpa만
+        assertThat(bookRepository.count()).isZero();
+    }
+
+    @Sql("classpath:db/tableInit.sql")
+    @Test
+    public void deleteBooks_range_overflow_test() {
+        // given (to - from이 overflow되는 범위, 음수 범위)
+        HttpEntity<String> request = new HttpEntity<>(null, headers);
+
+        // when
+        ResponseEntity<String> overflow = rt.exchange("/api/v1/books?from=" + Long.MIN_VALUE + "&to=" + Long.MAX_VALUE,
+                HttpMethod.DELETE, request, String.class);
+        ResponseEntity<String> negative = rt.exchange("/api/v1/books?from=-10&to=" + savedId, HttpMethod.DELETE, request, String.class);
+
+        // then (아무것도 지우지 않는다)
+        assertThat(overflow.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(negative.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(bookRepository.count()).isEqualTo(1);
+    }
+
     @Sql("classpath:db/tableInit.sql")
     @Test
     public void getBookOne_test() { // 1. getBookOne_test 시작 전에 BeforeEach를 시작하는데 이 모든 것 전에 테이블 초기화 한 번 한다.
         // given
-        Integer id = 1;
+        Long id = savedId;
 
         // when
         HttpEntity<String> request = new HttpEntity<>(null, headers);
@@ -113,6 +158,97 @@ public class BookApiControllerTest {
         assertThat(title).isEqualTo("junit");
     }
 
+    @Sql("classpath:db/tableInit.sql")
+    @Test
+    public void getBookOne_notModified_test() throws Exception {
+        // given
+        Long id = savedId;
+        ResponseEntity<String> first = rt.exchange("/api/v1/book/" + id, HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+        String eTag = first.getHeaders().getETag();
+
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.setIfNoneMatch(eTag);
+
+        // when
+        ResponseEntity<String> notModified = rt.exchange("/api/v1/book/" + id, HttpMethod.GET, new HttpEntity<>(null, conditional), String.class);
+
+        BookSaveReqDto bookSaveReqDto = new BookSaveReqDto();
+        bookSaveReqDto.setTitle("spring");
+        bookSaveReqDto.setAuthor("meta");
+        rt.exchange("/api/v1/book/" + id, HttpMethod.PUT, new HttpEntity<>(om.writeValueAsString(bookSaveReqDto), headers), String.class);
+        ResponseEntity<String> modified = rt.exchange("/api/v1/book/" + id, HttpMethod.GET, new HttpEntity<>(null, conditional), String.class);
+
+        // then
+        assertThat(eTag).isNotNull();
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getBody()).isNull();
+        assertThat(modified.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(modified.getHeaders().getETag()).isNotEqualTo(eTag);
+        assertThat((String) JsonPath.parse(modified.getBody()).read("$.body.title")).isEqualTo("spring");
+    }
+
+    @Sql("classpath:db/tableInit.sql")
+    @Test
+    public void getBookList_notModified_test() throws Exception {
+        // given
+        ResponseEntity<String> first = rt.exchange("/api/v1/book", HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.setIfNoneMatch(first.getHeaders().getETag());
+
+        // when
+        ResponseEntity<String> notModified = rt.exchange("/api/v1/book", HttpMethod.GET, new HttpEntity<>(null, conditional), String.class);
+
+        BookSaveReqDto bookSaveReqDto = new BookSaveReqDto();
+        bookSaveReqDto.setTitle("spring");
+        bookSaveReqDto.setAuthor("meta");
+        rt.exchange("/api/v1/book", HttpMethod.POST, new HttpEntity<>(om.writeValueAsString(bookSaveReqDto), headers), String.class);
+        ResponseEntity<String> modified = rt.exchange("/api/v1/book", HttpMethod.GET, new HttpEntity<>(null, conditional), String.class);
+
+        // then
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(modified.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Sql("classpath:db/tableInit.sql")
+    @Test
+    public void getBookList_cbor_test() throws Exception {
+        // given
+        HttpHeaders cborHeaders = new HttpHeaders();
+        cborHeaders.setAccept(List.of(MediaType.valueOf("application/cbor")));
+
+        // when
+        ResponseEntity<byte[]> response = rt.exchange("/api/v1/book", HttpMethod.GET, new HttpEntity<>(null, cborHeaders), byte[].class);
+
+        // then
+        JsonNode body = new ObjectMapper(new CBORFactory()).readTree(response.getBody());
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.valueOf("application/cbor"))).isTrue();
+        // 헤더 이름은 대소문자를 구분하지 않는다(Tomcat 압축이 Vary를 합치면서 소문자로 바꾼다)
+        assertThat(response.getHeaders().getVary()).anySatisfy(vary -> assertThat(vary).isEqualToIgnoringCase(HttpHeaders.ACCEPT));
+        assertThat(body.get("code").asInt()).isEqualTo(1);
+        assertThat(body.get("body").get("items").get(0).get("title").asText()).isEqualTo("junit");
+    }
+
+    @Sql("classpath:db/tableInit.sql")
+    @Test
+    public void getBookList_gzip_test() {
+        // given (min-response-size 이상이 되도록)
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            books.add(Book.builder().title("junit" + i).author("meta").build());
+        }
+        bookRepository.saveAll(books);
+
+        HttpHeaders gzipHeaders = new HttpHeaders();
+        gzipHeaders.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        // when
+        ResponseEntity<byte[]> response = rt.exchange("/api/v1/book", HttpMethod.GET, new HttpEntity<>(null, gzipHeaders), byte[].class);
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    }
+
     @Sql("classpath:db/tableInit.sql")  // 항상 auto-increment에 의한 오류 안 생김
     @Test
     public void getBookList_test() {
@@ -131,6 +267,155 @@ public class BookApiControllerTest {
         assertThat(title).isEqualTo("junit");
     }
 
+    @Sql("classpath:db/tableInit.sql")
+    @Test
+    public void getBookPage_test() {
+        // given
+        bookRepository.save(Book.builder().title("spring").author("meta").build());
+
+        // when
+        HttpEntity<String> request = new HttpEntity<>(null, headers);
+        ResponseEntity<String> response = rt.exchange("/api/v1/book?after=0&limit=1", HttpMethod.GET, request, String.class);
+
+        // then
+        DocumentContext dc = JsonPath.parse(response.getBody());
+        Integer code = dc.read("$.code");
+        Integer size = dc.read("$.body.items.length()");
+        String title = dc.read("$.body.items[0].title");
+        Integer next = dc.read("$.next");
+
+        assertThat(code).isEqualTo(1);
+        assertThat(size).isEqualTo(1);
+        assertThat(title).isEqualTo("junit");
+        assertThat(next.longValue()).isEqualTo(savedId);
+    }
+
+    @Sql("classpath:db/tableInit.sql")
+    @Test
+    public void exportBooks_test() throws Exception {
+        // given
+        bookRepository.save(Book.builder().title("spring").author("meta").build());
+
+        // when
+        HttpEntity<String> request = new HttpEntity<>(null, headers);
+        ResponseEntity<String> response = rt.exchange("/api/v1/book/export", HttpMethod.GET, request, String.class);
+
+        // then
+        String[] lines = response.getBody().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(om.readTree(lines[0]).get("title").asText()).isEqualTo("junit");
+        assertThat(om.readTree(lines[1]).get("title").asText()).isEqualTo("spring");
+    }
+
+    @Test
+    public void registerBooks_test() throws Exception {
+        // given
+        BookSaveReqDto valid = new BookSaveReqDto();
+        valid.setTitle("spring");
+        valid.setAuthor("gettin");
+        BookSaveReqDto invalid = new BookSaveReqDto();
+        invalid.setTitle("");
+        invalid.setAuthor("m");
+
+        String body = om.writeValueAsString(new BookSaveReqDto[]{valid, invalid, valid});
+
+        // when
+        HttpEntity<String> request = new HttpEntity<>(body, headers);
+        ResponseEntity<String> response = rt.exchange("/api/v1/books/bulk", HttpMethod.POST, request, String.class);
+
+        // then
+        DocumentContext dc = JsonPath.parse(response.getBody());
+        Integer saved = dc.read("$.body.saved");
+        Integer failed = dc.read("$.body.failed");
+        Boolean secondSuccess = dc.read("$.body.items[1].success");
+        String thirdTitle = dc.read("$.body.items[2].book.title");
+
+        assertThat(saved).isEqualTo(2);
+        assertThat(failed).isEqualTo(1);
+        assertThat(secondSuccess).isFalse();
+        assertThat(thirdTitle).isEqualTo("spring");
+    }
+
+    @Test
+    public void metrics_test() {
+        // given
+        HttpEntity<String> request = new HttpEntity<>(null, headers);
+        rt.exchange("/api/v1/book/" + savedId, HttpMethod.GET, request, String.class);
+        rt.exchange("/api/v1/book/" + Long.MAX_VALUE, HttpMethod.GET, request, String.class); // 없는 id -> 404
+
+        // when
+        ResponseEntity<String> response = rt.exchange("/actuator/prometheus", HttpMethod.GET, request, String.class);
+
+        // then
+        String body = response.getBody();
+        assertThat(body).contains("book_api_requests_seconds_count{endpoint=\"getBookOne\"");
+        assertThat(body).contains("book_api_errors_total{endpoint=\"getBookOne\"");
+        assertThat(body).contains("book_service_seconds_count{class=\"BookService\"");
+        assertThat(body).contains("book_sql_statements_total");
+        assertThat(body).contains("book_db_connection_hold_seconds_count{endpoint=\"getBookOne\"");
+        assertThat(body).contains("hikaricp_connections_usage_seconds_count{pool=\"book-pool\"");
+    }
+
+    @Test
+    public void getBookOne_notFound_test() {
+        // given
+        HttpEntity<String> request = new HttpEntity<>(null, headers);
+
+        // when
+        ResponseEntity<String> response = rt.exchange("/api/v1/book/" + Long.MAX_VALUE, HttpMethod.GET, request, String.class);
+
+        // then
+        DocumentContext dc = JsonPath.parse(response.getBody());
+        Integer code = dc.read("$.code");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(code).isEqualTo(-1);
+    }
+
+    @Test
+    public void saveBook_validation_test() throws Exception {
+        // given
+        BookSaveReqDto bookSaveReqDto = new BookSaveReqDto();
+        bookSaveReqDto.setTitle("");
+        bookSaveReqDto.setAuthor("meta");
+
+        String body = om.writeValueAsString(bookSaveReqDto);
+
+        // when
+        HttpEntity<String> request = new HttpEntity<>(body, headers);
+        ResponseEntity<String> response = rt.exchange("/api/v1/book", HttpMethod.POST, request, String.class);
+
+        // then
+        DocumentContext dc = JsonPath.parse(response.getBody());
+        Integer code = dc.read("$.code");
+        String titleError = dc.read("$.errors.title");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(code).isEqualTo(-1);
+        assertThat(titleError).isNotBlank();
+    }
+
+    @Test
+    public void searchBook_test() throws Exception {
+        // given (색인은 BookService를 거친 변경만 반영하므로 API로 등록)
+        BookSaveReqDto bookSaveReqDto = new BookSaveReqDto();
+        bookSaveReqDto.setTitle("검색용 자바책");
+        bookSaveReqDto.setAuthor("meta");
+        rt.exchange("/api/v1/book", HttpMethod.POST, new HttpEntity<>(om.writeValueAsString(bookSaveReqDto), headers), String.class);
+
+        // when
+        HttpEntity<String> request = new HttpEntity<>(null, headers);
+        ResponseEntity<String> response = rt.exchange("/api/v1/book/search?q=자바", HttpMethod.GET, request, String.class);
+
+        // then
+        DocumentContext dc = JsonPath.parse(response.getBody());
+        Integer code = dc.read("$.code");
+        String title = dc.read("$.body.items[0].title");
+
+        assertThat(code).isEqualTo(1);
+        assertThat(title).isEqualTo("검색용 자바책");
+    }
+
     @Test
     public void saveBook_test() throws Exception {
         // given
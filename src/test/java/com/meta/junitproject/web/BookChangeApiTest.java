@@ -0,0 +1,225 @@
+package com.meta.junitproject.web;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.meta.junitproject.service.BookBulkService;
+import com.meta.junitproject.service.BookService;
+import com.meta.junitproject.web.dto.request.BookSaveReqDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 책 변경 내역 (GET /api/v1/book/changes)
+ * 1. 등록/수정/삭제가 커밋 순서대로 쌓이고 since 이후만 내려온다.
+ * 2. 롤백된 변경은 내역에도 없다. (같은 트랜잭션, 번호도 비지 않는다)
+ * 2-2. 먼저 시작해서 늦게 커밋된 변경도 그 사이에 읽은 소비자가 놓치지 않는다.
+ * 2-3. micro-batch 저장은 건수만큼 번호를 따로 받지 않는다. (트랜잭션당 한 번, insert는 jdbc batch)
+ * 2-1. 일괄 삭제는 실제로 지운 책만 내역에 남는다. (없는 id, 이미 지운 id 제외)
+ * 3. 새 내역이 없으면 기다렸다가(long-poll) 커밋되는 즉시 응답한다.
+ * 다른 테스트 컨텍스트와 섞이지 않도록 DB(h2 mem)를 따로 쓴다.
+ */
+@ActiveProfiles("dev")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:change_feed_test",
+        "spring.jpa.show-sql=false",
+        "book.mail.dispatch.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+public class BookChangeApiTest {
+
+    @Autowired
+    private TestRestTemplate rt;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookBulkService bookBulkService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void getChanges_test() {
+        // given
+        long since = latestSeq();
+        Long id = bookService.register_book(saveReqDto("junit")).getId();
+        bookService.modify_book(id, saveReqDto("spring"));
+        bookService.delete_book(id);
+
+        // when
+        ResponseEntity<String> response = rt.getForEntity("/api/v1/book/changes?since=" + since + "&wait=0", String.class);
+
+        // then
+        DocumentContext dc = JsonPath.parse(response.getBody());
+        List<String> types = dc.read("$.body.items[*].type");
+        List<Integer> bookIds = dc.read("$.body.items[*].bookId");
+        String updatedTitle = dc.read("$.body.items[1].title");
+        Number lastSeq = dc.read("$.body.items[2].seq");
+        Number next = dc.read("$.next");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(types).containsExactly("CREATED", "UPDATED", "DELETED");
+        assertThat(bookIds).allMatch(bookId -> bookId.longValue() == id);
+        assertThat(updatedTitle).isEqualTo("spring");
+        assertThat(next.longValue()).isEqualTo(lastSeq.longValue());
+    }
+
+    @Test
+    public void getChanges_rollback_test() {
+        // given
+        long since = latestSeq();
+        transactionTemplate.executeWithoutResult(status -> {
+            bookService.register_book(saveReqDto("rollback"));
+            status.setRollbackOnly();
+        });
+        bookService.register_book(saveReqDto("commit"));
+
+        // when
+        ResponseEntity<String> response = rt.getForEntity("/api/v1/book/changes?since=" + since + "&wait=0", String.class);
+
+        // then (롤백된 변경은 번호를 남기지 않는다)
+        DocumentContext dc = JsonPath.parse(response.getBody());
+        List<String> titles = dc.read("$.body.items[*].title");
+        Number seq = dc.read("$.body.items[0].seq");
+        assertThat(titles).containsExactly("commit");
+        assertThat(seq.longValue()).isEqualTo(since + 1);
+    }
+
+    @Test
+    public void getChanges_slow_transaction_test() throws Exception {
+        // given (slow 트랜잭션이 등록까지 하고 커밋을 미루는 사이에 fast가 커밋되고, 소비자가 fast까지 읽음)
+        long since = latestSeq();
+        CountDownLatch registered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            bookService.register_book(saveReqDto("slow"));
+            registered.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(registered.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> fast = CompletableFuture.runAsync(() -> bookService.register_book(saveReqDto("fast")));
+        long afterFast = latestSeq();
+
+        // when (slow가 나중에 커밋)
+        release.countDown();
+        slow.get(10, TimeUnit.SECONDS);
+        fast.get(10, TimeUnit.SECONDS);
+        List<String> before = JsonPath.parse(rt.getForEntity("/api/v1/book/changes?since=" + since + "&limit=1000&wait=0", String.class)
+                .getBody()).read("$.body.items[*].title");
+        List<String> after = JsonPath.parse(rt.getForEntity("/api/v1/book/changes?since=" + afterFast + "&limit=1000&wait=0", String.class)
+                .getBody()).read("$.body.items[*].title");
+
+        // then (커밋 순서대로 번호가 붙으므로 afterFast 이후에 slow가 보인다)
+        assertThat(before).containsExactlyInAnyOrder("slow", "fast");
+        assertThat(before.subList(before.size() - after.size(), before.size())).isEqualTo(after);
+        assertThat(after).contains("slow");
+    }
+
+    @Test
+    public void getChanges_batch_test() {
+        // given
+        int books = 200;
+        List<BookSaveReqDto> dtos = new ArrayList<>(books);
+        for (int i = 0; i < books; i++) {
+            dtos.add(saveReqDto("batch" + i));
+        }
+        long since = latestSeq();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when
+        bookBulkService.save_batch(dtos);
+        long statements = statistics.getPrepareStatementCount();
+
+        // then (번호가 이어진 200건, 건별 번호 조회가 있으면 statement가 200개를 넘는다)
+        ResponseEntity<String> response = rt.getForEntity("/api/v1/book/changes?since=" + since + "&limit=1000&wait=0", String.class);
+        List<Number> seqs = JsonPath.parse(response.getBody()).read("$.body.items[*].seq");
+        assertThat(seqs).hasSize(books);
+        assertThat(seqs.get(books - 1).longValue() - seqs.get(0).longValue()).isEqualTo(books - 1);
+        assertThat(statements).isLessThan(books / 4);
+    }
+
+    @Test
+    public void getChanges_bulk_delete_test() {
+        // given
+        Long deletedId = bookService.register_book(saveReqDto("deleted")).getId();
+        Long liveId = bookService.register_book(saveReqDto("live")).getId();
+        bookService.delete_book(deletedId);
+        long since = latestSeq();
+
+        // when
+        int deleted = bookService.delete_books(List.of(deletedId, liveId, Long.MAX_VALUE));
+        ResponseEntity<String> response = rt.getForEntity("/api/v1/book/changes?since=" + since + "&wait=0", String.class);
+
+        // then
+        DocumentContext dc = JsonPath.parse(response.getBody());
+        List<String> types = dc.read("$.body.items[*].type");
+        List<Number> bookIds = dc.read("$.body.items[*].bookId");
+        assertThat(deleted).isEqualTo(1);
+        assertThat(types).containsExactly("DELETED");
+        assertThat(bookIds).extracting(Number::longValue).containsExactly(liveId);
+    }
+
+    @Test
+    public void getChanges_longPoll_test() throws Exception {
+        // given
+        long since = latestSeq();
+        CompletableFuture<ResponseEntity<String>> pending = CompletableFuture.supplyAsync(
+                () -> rt.getForEntity("/api/v1/book/changes?since=" + since + "&wait=30", String.class));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("book.changes.waiters").gauge().value() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // when
+        long start = System.nanoTime();
+        bookService.register_book(saveReqDto("long-poll"));
+        ResponseEntity<String> response = pending.get(10, TimeUnit.SECONDS);
+
+        // then (wait 30초를 다 기다리지 않고 커밋 직후 응답)
+        List<String> titles = JsonPath.parse(response.getBody()).read("$.body.items[*].title");
+        assertThat(titles).containsExactly("long-poll");
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(10));
+    }
+
+    private long latestSeq() {
+        ResponseEntity<String> response = rt.getForEntity("/api/v1/book/changes?since=0&limit=1000&wait=0", String.class);
+        Number next = JsonPath.parse(response.getBody()).read("$.next");
+        return next.longValue();
+    }
+
+    private BookSaveReqDto saveReqDto(String title) {
+        BookSaveReqDto dto = new BookSaveReqDto();
+        dto.setTitle(title);
+        dto.setAuthor("meta");
+        return dto;
+    }
+}
@@ -0,0 +1,155 @@
+package com.meta.junitproject.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import com.meta.junitproject.domain.BookCatalogVersion;
+import com.meta.junitproject.web.dto.request.BookSaveReqDto;
+import com.meta.junitproject.web.dto.response.BookListRespDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import com.meta.junitproject.web.dto.response.CommonRespDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 전체 목록 응답 바이트 캐시 (book.list.response-cache.enabled=true)
+ * 1. 같은 목록은 두 번째 요청부터 캐시된 바이트로 응답한다. (본문은 직렬화했을 때와 같음)
+ * 2. gzip을 받는 요청은 압축해 둔 바이트로 응답한다.
+ * 3. 등록이 커밋되면 다음 요청은 새 목록을 받는다.
+ * 4. 목록 버전과 본문을 다른 시점(replica)에서 읽었으면 본문을 최신 ETag로 저장하지 않는다.
+ * 다른 테스트 컨텍스트와 섞이지 않도록 DB(h2 mem)를 따로 쓴다.
+ */
+@ActiveProfiles("dev")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:list_response_cache_test",
+        "spring.jpa.show-sql=false",
+        "book.mail.dispatch.enabled=false",
+        "book.list.response-cache.enabled=true"})
+public class BookListResponseCacheTest {
+
+    @Autowired
+    private TestRestTemplate rt;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookListResponseCache bookListResponseCache;
+
+    private final ObjectMapper om = new ObjectMapper();
+
+    @Test
+    public void getBookList_cached_test() throws Exception {
+        // given
+        register("junit");
+        ResponseEntity<String> first = getList();
+        double hits = hits();
+
+        // when
+        ResponseEntity<String> second = getList();
+
+        // then
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(second.getBody()).isEqualTo(first.getBody());
+        assertThat(hits()).isEqualTo(hits + 1);
+        assertThat((Integer) JsonPath.parse(second.getBody()).read("$.code")).isEqualTo(1);
+    }
+
+    @Test
+    public void getBookList_invalidated_test() throws Exception {
+        // given
+        getList();
+
+        // when
+        register("spring-invalidated");
+        ResponseEntity<String> response = getList();
+
+        // then
+        List<String> titles = JsonPath.parse(response.getBody()).read("$.body.items[*].title");
+        assertThat(titles).contains("spring-invalidated");
+    }
+
+    @Test
+    public void getBookList_gzip_test() throws Exception {
+        // given (min-response-size 이상이 되도록)
+        for (int i = 0; i < 50; i++) {
+            register("gzip" + i);
+        }
+        ResponseEntity<String> plain = getList();
+        HttpHeaders gzipHeaders = new HttpHeaders();
+        gzipHeaders.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        // when
+        ResponseEntity<byte[]> response = rt.exchange("/api/v1/book", HttpMethod.GET, new HttpEntity<>(null, gzipHeaders), byte[].class);
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gunzip(response.getBody())).isEqualTo(plain.getBody());
+    }
+
+    @Test
+    public void stale_body_not_cached_test() {
+        // given (목록 버전은 최신 replica에서 2건, 본문은 지연된 replica에서 1건)
+        Instant modifiedAt = Instant.parse("2022-08-01T00:00:00Z");
+        List<BookRespDto> stale = List.of(new BookRespDto(1L, "junit", "meta", 0L, modifiedAt));
+        BookCatalogVersion current = new BookCatalogVersion(2L, 2L, 0L, modifiedAt.plusSeconds(1));
+        ServletWebRequest webRequest = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/book"));
+        bookListResponseCache.respond(webRequest, current, () -> CommonRespDto.<BookListRespDto>builder()
+                .code(1).message("글 목록보기 성공").body(BookListRespDto.builder().bookList(stale).build()).build());
+        double hits = hits();
+
+        // when (같은 최신 목록 버전으로 다시 요청)
+        ResponseEntity<byte[]> response = bookListResponseCache.respond(webRequest, current, () -> CommonRespDto.<BookListRespDto>builder()
+                .code(1).message("글 목록보기 성공").body(BookListRespDto.builder().bookList(List.of()).build()).build());
+
+        // then (옛 본문을 캐시에서 내보내지 않고 다시 조회한다)
+        assertThat(hits()).isEqualTo(hits);
+        assertThat(new String(response.getBody())).doesNotContain("junit");
+    }
+
+    private ResponseEntity<String> getList() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        return rt.exchange("/api/v1/book", HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+    }
+
+    private void register(String title) throws Exception {
+        BookSaveReqDto bookSaveReqDto = new BookSaveReqDto();
+        bookSaveReqDto.setTitle(title);
+        bookSaveReqDto.setAuthor("meta");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        rt.exchange("/api/v1/book", HttpMethod.POST, new HttpEntity<>(om.writeValueAsString(bookSaveReqDto), headers), String.class);
+    }
+
+    private double hits() {
+        return meterRegistry.get("book.list.response.cache").tag("result", "hit").counter().count();
+    }
+
+    private String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), "UTF-8");
+        }
+    }
+}
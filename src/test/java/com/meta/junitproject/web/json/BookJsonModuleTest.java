@@ -0,0 +1,100 @@
+package com.meta.junitproject.web.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.meta.junitproject.domain.Book;
+import com.meta.junitproject.web.dto.response.BookListRespDto;
+import com.meta.junitproject.web.dto.response.BookRespDto;
+import com.meta.junitproject.web.dto.response.CommonRespDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 손으로 쓴 직렬화기(BookJsonModule, BookJsonWriter)가 기존 reflection 직렬화와 같은 바이트를 만드는지
+ * 기준: spring boot 기본 설정과 같은 ObjectMapper (JavaTimeModule, 날짜는 ISO 문자열)
+ */
+public class BookJsonModuleTest {
+
+    private static final Instant MODIFIED_AT = Instant.parse("2022-08-01T00:00:00.123456Z");
+
+    private final ObjectMapper reflective = mapper(new ObjectMapper());
+    private final ObjectMapper module = mapper(new ObjectMapper()).registerModule(new BookJsonModule());
+
+    @Test
+    public void book_list_same_json_test() throws Exception {
+        // given (null 필드 포함)
+        List<BookRespDto> items = new ArrayList<>();
+        items.add(new BookRespDto(1L, "junit강의", "메타코딩", 0L, MODIFIED_AT));
+        items.add(new BookRespDto(2L, "\"quoted\"\n", null, null, null));
+        CommonRespDto<BookListRespDto> response = CommonRespDto.<BookListRespDto>builder()
+                .code(1).message("글 목록보기 성공").body(BookListRespDto.builder().bookList(items).next(2L).build()).next(2L).build();
+
+        // when
+        String expected = reflective.writeValueAsString(response);
+        String actual = module.writeValueAsString(response);
+
+        // then
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    public void error_response_same_json_test() throws Exception {
+        // given
+        CommonRespDto<?> response = CommonRespDto.builder().code(-1).message("유효성 검사 실패")
+                .errors(Map.of("title", "공백일 수 없습니다")).build();
+
+        // when
+        String expected = reflective.writeValueAsString(response);
+        String actual = module.writeValueAsString(response);
+
+        // then (body는 null, next는 생략)
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    public void cbor_same_bytes_test() throws Exception {
+        // given
+        ObjectMapper reflectiveCbor = mapper(new ObjectMapper(new CBORFactory()));
+        ObjectMapper moduleCbor = mapper(new ObjectMapper(new CBORFactory())).registerModule(new BookJsonModule());
+        CommonRespDto<BookRespDto> response = CommonRespDto.<BookRespDto>builder()
+                .code(1).message("글 한 건 보기 성공").body(new BookRespDto(1L, "junit", "meta", 3L, MODIFIED_AT)).build();
+
+        // when
+        byte[] expected = reflectiveCbor.writeValueAsBytes(response);
+        byte[] actual = moduleCbor.writeValueAsBytes(response);
+
+        // then
+        assertThat(Arrays.equals(actual, expected)).isTrue();
+    }
+
+    @Test
+    public void entity_same_json_test() throws Exception {
+        // given
+        Book book = new Book(1L, "junit강의", "메타코딩");
+        StringWriter out = new StringWriter();
+
+        // when
+        try (JsonGenerator gen = module.getFactory().createGenerator(out)) {
+            BookJsonWriter.write(gen, module.getSerializerProviderInstance(), book);
+        }
+
+        // then (dto를 거쳐 직렬화한 것과 같다)
+        assertThat(out.toString()).isEqualTo(reflective.writeValueAsString(book.toDto()));
+    }
+
+    private static ObjectMapper mapper(ObjectMapper objectMapper) {
+        return objectMapper.registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}